@@ -0,0 +1,28 @@
+package io.github.kxng0109.taskflow.common;
+
+import io.github.kxng0109.taskflow.exception.PreconditionFailedException;
+
+//ETags are the entity's @Version value in quotes. If-Match is compared strongly, so weak tags never match.
+public final class EntityTags {
+    private EntityTags() {}
+
+    public static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    //Null when the write is unconditional: no If-Match header, or "*", which any existing entity satisfies
+    public static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try{
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            }catch(NumberFormatException ignored){
+                //Falls through, a tag this service never issued cannot match
+            }
+        }
+        throw new PreconditionFailedException("If-Match does not match the current version");
+    }
+}
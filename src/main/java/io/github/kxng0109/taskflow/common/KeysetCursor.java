@@ -0,0 +1,35 @@
+package io.github.kxng0109.taskflow.common;
+
+import io.github.kxng0109.taskflow.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+//Position after the last row of a page: the row id plus, for listings sorted by another column first, that column's
+//value. Clients get it as an opaque base64url string and only pass it back.
+public record KeysetCursor(long id, String sortKey) {
+
+    public static KeysetCursor of(long id) {
+        return new KeysetCursor(id, null);
+    }
+
+    public static KeysetCursor of(String sortKey, long id) {
+        return new KeysetCursor(id, sortKey);
+    }
+
+    public String encode() {
+        String raw = sortKey == null ? Long.toString(id) : id + ":" + sortKey;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try{
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            //The id goes first, so a sort key containing ':' still splits correctly
+            String[] parts = raw.split(":", 2);
+            return new KeysetCursor(Long.parseLong(parts[0]), parts.length > 1 ? parts[1] : null);
+        }catch(IllegalArgumentException e){
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+}
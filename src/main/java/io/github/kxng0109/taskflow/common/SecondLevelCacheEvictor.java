@@ -0,0 +1,56 @@
+package io.github.kxng0109.taskflow.common;
+
+import io.github.kxng0109.taskflow.project.Project;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+//Writes made through JdbcTemplate or native SQL bypass Hibernate, so it cannot invalidate the second-level cache
+//entries they make stale; callers of such writes evict them here. Entity changes made through the EntityManager,
+//including bulk JPQL statements, are invalidated by Hibernate itself. Every eviction is repeated after the
+//transaction completes, since a concurrent reader may have cached the old rows again in the meantime.
+//With the l2cache profile off, Hibernate's cache is disabled and these calls do nothing.
+@Component
+public class SecondLevelCacheEvictor {
+    public static final String USER_BY_EMAIL_REGION = "users.byEmail";
+
+    private static final String PROJECT_MEMBERS_ROLE = Project.class.getName() + ".members";
+
+    private final Cache cache;
+
+    public SecondLevelCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    //Cached "no user with this email" results would hide users inserted outside Hibernate
+    public void evictUserQueries() {
+        evict(() -> cache.evictQueryRegion(USER_BY_EMAIL_REGION));
+    }
+
+    //A cached project would still be found by id after it is marked deleted, the restriction only applies to SQL
+    public void evictProject(Long projectId) {
+        evict(() -> {
+            cache.evictEntityData(Project.class, projectId);
+            cache.evictCollectionData(PROJECT_MEMBERS_ROLE, projectId);
+        });
+    }
+
+    public void evictProjectMembers(Long projectId) {
+        evict(() -> cache.evictCollectionData(PROJECT_MEMBERS_ROLE, projectId));
+    }
+
+    private void evict(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
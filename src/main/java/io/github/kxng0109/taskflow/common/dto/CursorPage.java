@@ -0,0 +1,9 @@
+package io.github.kxng0109.taskflow.common.dto;
+
+import java.util.List;
+
+//One page of a keyset-paginated listing, nextCursor is null on the last page
+public record CursorPage<T>(
+        List<T> items,
+        String nextCursor
+) {}
@@ -1,14 +1,38 @@
 package io.github.kxng0109.taskflow.config;
 
+import io.github.kxng0109.taskflow.security.password.BCryptStrengthCalibrator;
+import io.github.kxng0109.taskflow.security.password.BoundedPasswordEncoder;
+import io.github.kxng0109.taskflow.security.password.PasswordHashingExecutor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+
+import java.util.Map;
 
 @Configuration
 public class ApplicationConfig {
+    private static final String BCRYPT_ID = "bcrypt";
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(
+            PasswordHashingExecutor passwordHashingExecutor,
+            @Value("${app.security.password.strength:0}") int strength,
+            @Value("${app.security.password.target-hash-ms:250}") long targetHashMs,
+            @Value("${app.security.password.min-strength:10}") int minStrength,
+            @Value("${app.security.password.max-strength:16}") int maxStrength
+    ) {
+        int bcryptStrength = strength > 0
+                ? strength
+                : new BCryptStrengthCalibrator(targetHashMs, minStrength, maxStrength).calibrate();
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+
+        //New hashes are stored as {bcrypt}..., hashes from before the prefix existed are still matched as BCrypt.
+        //Either kind, or a hash with a lower strength, is reported for upgrade and re-encoded on the next login.
+        DelegatingPasswordEncoder delegatingPasswordEncoder = new DelegatingPasswordEncoder(BCRYPT_ID, Map.of(BCRYPT_ID, bcrypt));
+        delegatingPasswordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        return new BoundedPasswordEncoder(delegatingPasswordEncoder, passwordHashingExecutor);
     }
 }
@@ -2,9 +2,14 @@ package io.github.kxng0109.taskflow.exception;
 
 import io.github.kxng0109.taskflow.exception.dto.ErrorResponse;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -18,20 +23,61 @@ public class GlobalExceptionHandler{
     @ExceptionHandler(EntityNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleEntityNotFoundException(EntityNotFoundException e){
         ErrorResponse errorResponse = new ErrorResponse(e.getMessage());
-        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+        return respond(HttpStatus.NOT_FOUND, errorResponse);
+    }
+
+    @ExceptionHandler(AuthenticationException.class)
+    public ResponseEntity<ErrorResponse> handleAuthenticationException(AuthenticationException e){
+        ErrorResponse errorResponse = new ErrorResponse(e.getMessage());
+        return respond(HttpStatus.UNAUTHORIZED, errorResponse);
     }
 
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<ErrorResponse> handleAccessDeniedException(AccessDeniedException e){
         ErrorResponse errorResponse = new ErrorResponse(e.getMessage());
-        return new ResponseEntity<>(errorResponse, HttpStatus.FORBIDDEN);
+        return respond(HttpStatus.FORBIDDEN, errorResponse);
     }
 
     //This is for duplicate data issues
     @ExceptionHandler(IllegalStateException.class)
     public ResponseEntity<ErrorResponse> handleIllegalStateException(IllegalStateException e){
         ErrorResponse errorResponse = new ErrorResponse(e.getMessage());
-        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+        return respond(HttpStatus.CONFLICT, errorResponse);
+    }
+
+    //Unique constraint violations that were not turned into a more specific message by the service
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponse> handleDataIntegrityViolationException(DataIntegrityViolationException e){
+        ErrorResponse errorResponse = new ErrorResponse("The request conflicts with existing data");
+        return respond(HttpStatus.CONFLICT, errorResponse);
+    }
+
+    //Another request changed the entity between this one reading and writing it
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(OptimisticLockingFailureException e){
+        ErrorResponse errorResponse = new ErrorResponse("The resource was modified by another request, reload it and retry");
+        return respond(HttpStatus.CONFLICT, errorResponse);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handlePreconditionFailedException(PreconditionFailedException e){
+        ErrorResponse errorResponse = new ErrorResponse(e.getMessage());
+        return respond(HttpStatus.PRECONDITION_FAILED, errorResponse);
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ErrorResponse> handleServiceOverloadedException(ServiceOverloadedException e){
+        ErrorResponse errorResponse = new ErrorResponse(e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursorException(InvalidCursorException e){
+        ErrorResponse errorResponse = new ErrorResponse(e.getMessage());
+        return respond(HttpStatus.BAD_REQUEST, errorResponse);
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -40,6 +86,12 @@ public class GlobalExceptionHandler{
         e.getBindingResult().getFieldErrors().forEach((error) -> {
             errors.put(error.getField(), error.getDefaultMessage());
         });
-        return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+        return respond(HttpStatus.BAD_REQUEST, errors);
+    }
+
+    //Errors are always JSON, even for endpoints that only produce another type such as the NDJSON task export. A preset
+    //content type skips content negotiation, which would otherwise find no acceptable representation for the body.
+    private static <T> ResponseEntity<T> respond(HttpStatus status, T body){
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(body);
     }
 }
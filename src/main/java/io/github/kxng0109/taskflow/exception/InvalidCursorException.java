@@ -0,0 +1,7 @@
+package io.github.kxng0109.taskflow.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package io.github.kxng0109.taskflow.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -4,6 +4,11 @@ import io.github.kxng0109.taskflow.task.Task;
 import io.github.kxng0109.taskflow.user.User;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.OptimisticLock;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -12,6 +17,8 @@ import java.util.Set;
 
 @Entity
 @Table(name = "projects")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@SQLRestriction("deleted = false")
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
@@ -29,11 +36,34 @@ public class Project {
     @Column(columnDefinition = "TEXT")
     private String description;
 
+    //Deleted projects are hidden from every query by the restriction above until ProjectPurgeJob removes them
+    @Column(nullable = false)
+    @ColumnDefault("false")
+    @Builder.Default
+    private boolean deleted = false;
+
+    //Optimistic lock, also sent to clients as the ETag; existing rows start at 0. Only the project's own columns bump
+    //it, members and tasks change through bulk SQL elsewhere and are excluded below.
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Long version;
+
+    //Same names as the previous implicit mapping. The primary key covers lookups by project, the index lookups by member.
     @ManyToMany
+    @JoinTable(
+            name = "projects_members",
+            joinColumns = @JoinColumn(name = "projects_id"),
+            inverseJoinColumns = @JoinColumn(name = "members_id"),
+            indexes = @Index(name = "idx_projects_members_member_project", columnList = "members_id, projects_id")
+    )
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    @OptimisticLock(excluded = true)
     @Builder.Default
     private Set<User> members = new HashSet<>();
 
     @OneToMany(mappedBy = "project", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OptimisticLock(excluded = true)
     @Builder.Default
     private List<Task> tasks = new ArrayList<>();
 
@@ -56,4 +86,9 @@ public class Project {
         this.members.remove(user);
         user.getProjects().remove(this);
     }
+
+    //Compares ids only, so neither the member entities nor the principal need to be fully loaded or equal
+    public boolean hasMember(Long userId) {
+        return this.members.stream().anyMatch(member -> member.getId().equals(userId));
+    }
 }
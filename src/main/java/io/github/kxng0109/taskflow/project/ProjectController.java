@@ -1,11 +1,17 @@
 package io.github.kxng0109.taskflow.project;
 
+import io.github.kxng0109.taskflow.common.EntityTags;
+import io.github.kxng0109.taskflow.common.dto.CursorPage;
 import io.github.kxng0109.taskflow.project.dto.AddMemberRequest;
+import io.github.kxng0109.taskflow.project.dto.BulkMemberRequest;
+import io.github.kxng0109.taskflow.project.dto.MemberChangeReport;
 import io.github.kxng0109.taskflow.project.dto.ProjectRequest;
 import io.github.kxng0109.taskflow.project.dto.ProjectResponse;
+import io.github.kxng0109.taskflow.project.dto.ProjectSummaryResponse;
 import io.github.kxng0109.taskflow.project.dto.UserSummaryResponse;
-import io.github.kxng0109.taskflow.user.User;
+import io.github.kxng0109.taskflow.security.AuthenticatedUser;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -17,56 +23,71 @@ import java.util.List;
 @RequestMapping("/api/projects")
 public class ProjectController {
     private final ProjectService projectService;
+    private final ProjectMembershipService projectMembershipService;
 
-    public ProjectController(ProjectService projectService) {
+    public ProjectController(ProjectService projectService, ProjectMembershipService projectMembershipService) {
         this.projectService = projectService;
+        this.projectMembershipService = projectMembershipService;
     }
 
     @PostMapping
     public ResponseEntity<ProjectResponse> createProject(
             @Valid @RequestBody ProjectRequest project,
-            @AuthenticationPrincipal User currentUser
+            @AuthenticationPrincipal AuthenticatedUser currentUser
     ) {
         Project newProject = projectService.createProject(project, currentUser);
-        return new ResponseEntity<>(convertProjectToResponse(newProject), HttpStatus.CREATED);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .eTag(EntityTags.of(newProject.getVersion()))
+                .body(convertProjectToResponse(newProject));
     }
 
     @GetMapping
-    public ResponseEntity<List<Project>> getProjectsForUser(
-            @AuthenticationPrincipal User currentUser
+    public ResponseEntity<CursorPage<ProjectSummaryResponse>> getProjectsForUser(
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String namePrefix,
+            @AuthenticationPrincipal AuthenticatedUser currentUser
     ){
-        List<Project> projectsForUser = projectService.getProjectsForUser(currentUser);
+        CursorPage<ProjectSummaryResponse> projectsForUser = projectService.getProjectsForUser(
+                currentUser, limit, cursor, namePrefix
+        );
         return ResponseEntity.ok(projectsForUser);
     }
 
     @GetMapping("/{projectId}")
     public ResponseEntity<ProjectResponse> getProjectById(
             @PathVariable Long projectId,
-            @AuthenticationPrincipal User currentUser
+            @AuthenticationPrincipal AuthenticatedUser currentUser
     ){
         Project project = projectService.getProjectById(projectId, currentUser);
-        return ResponseEntity.ok(convertProjectToResponse(project));
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of(project.getVersion()))
+                .body(convertProjectToResponse(project));
     }
 
     @PutMapping("/{projectId}")
     public ResponseEntity<ProjectResponse> updateProject(
             @PathVariable Long projectId,
             @Valid @RequestBody ProjectRequest updateRequest,
-            @AuthenticationPrincipal User currentUser
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @AuthenticationPrincipal AuthenticatedUser currentUser
     ){
         Project updatedProject = projectService.updateProject(
-                projectId, updateRequest, currentUser
+                projectId, updateRequest, EntityTags.parseIfMatch(ifMatch), currentUser
         );
-        return ResponseEntity.ok(convertProjectToResponse(updatedProject));
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of(updatedProject.getVersion()))
+                .body(convertProjectToResponse(updatedProject));
     }
 
     @DeleteMapping("/{projectId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public ResponseEntity<Void> deleteProject(
             @PathVariable Long projectId,
-            @AuthenticationPrincipal User currentUser
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @AuthenticationPrincipal AuthenticatedUser currentUser
     ){
-        projectService.deleteProject(projectId, currentUser);
+        projectService.deleteProject(projectId, EntityTags.parseIfMatch(ifMatch), currentUser);
         return ResponseEntity.noContent().build();
     }
 
@@ -74,12 +95,30 @@ public class ProjectController {
     public ResponseEntity<ProjectResponse> addMemberToProject(
             @PathVariable Long projectId,
             @Valid @RequestBody AddMemberRequest member,
-            @AuthenticationPrincipal User currentUser
+            @AuthenticationPrincipal AuthenticatedUser currentUser
     ){
         Project updatedProject = projectService.addMemberToProject(projectId, member, currentUser);
         return new ResponseEntity<>(convertProjectToResponse(updatedProject), HttpStatus.CREATED);
     }
 
+    @PostMapping("/{projectId}/members/bulk")
+    public ResponseEntity<MemberChangeReport> addMembersToProject(
+            @PathVariable Long projectId,
+            @Valid @RequestBody BulkMemberRequest request,
+            @AuthenticationPrincipal AuthenticatedUser currentUser
+    ){
+        return ResponseEntity.ok(projectMembershipService.addMembers(projectId, request, currentUser));
+    }
+
+    @PostMapping("/{projectId}/members/bulk-remove")
+    public ResponseEntity<MemberChangeReport> removeMembersFromProject(
+            @PathVariable Long projectId,
+            @Valid @RequestBody BulkMemberRequest request,
+            @AuthenticationPrincipal AuthenticatedUser currentUser
+    ){
+        return ResponseEntity.ok(projectMembershipService.removeMembers(projectId, request, currentUser));
+    }
+
     private ProjectResponse convertProjectToResponse(Project project){
         List<UserSummaryResponse> members = project.getMembers().stream()
                 .map(user -> new UserSummaryResponse(user.getId(), user.getName()))
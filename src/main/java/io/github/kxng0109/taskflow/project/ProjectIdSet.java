@@ -0,0 +1,61 @@
+package io.github.kxng0109.taskflow.project;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+//Immutable sorted array of project ids. One long[] per user is a fraction of the heap of a Set<Long>, which pays for
+//a boxed Long and a hash node per id. Lookups are a binary search; updates copy the array, which is fine because
+//membership changes are rare next to membership checks.
+final class ProjectIdSet {
+    static final ProjectIdSet EMPTY = new ProjectIdSet(new long[0]);
+
+    //Object header, the array reference and the array's own header
+    private static final int FIXED_OVERHEAD_BYTES = 16 + 8 + 16;
+
+    private final long[] projectIds;
+
+    private ProjectIdSet(long[] projectIds) {
+        this.projectIds = projectIds;
+    }
+
+    static ProjectIdSet of(Collection<Long> projectIds) {
+        long[] ids = projectIds.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        return ids.length == 0 ? EMPTY : new ProjectIdSet(ids);
+    }
+
+    boolean contains(long projectId) {
+        return Arrays.binarySearch(projectIds, projectId) >= 0;
+    }
+
+    ProjectIdSet with(long projectId) {
+        int index = Arrays.binarySearch(projectIds, projectId);
+        if (index >= 0) {
+            return this;
+        }
+        int insertAt = -index - 1;
+        long[] ids = new long[projectIds.length + 1];
+        System.arraycopy(projectIds, 0, ids, 0, insertAt);
+        ids[insertAt] = projectId;
+        System.arraycopy(projectIds, insertAt, ids, insertAt + 1, projectIds.length - insertAt);
+        return new ProjectIdSet(ids);
+    }
+
+    ProjectIdSet without(long projectId) {
+        int index = Arrays.binarySearch(projectIds, projectId);
+        if (index < 0) {
+            return this;
+        }
+        long[] ids = new long[projectIds.length - 1];
+        System.arraycopy(projectIds, 0, ids, 0, index);
+        System.arraycopy(projectIds, index + 1, ids, index, projectIds.length - index - 1);
+        return new ProjectIdSet(ids);
+    }
+
+    int size() {
+        return projectIds.length;
+    }
+
+    int estimatedBytes() {
+        return FIXED_OVERHEAD_BYTES + 8 * projectIds.length;
+    }
+}
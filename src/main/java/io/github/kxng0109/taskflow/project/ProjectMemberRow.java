@@ -0,0 +1,7 @@
+package io.github.kxng0109.taskflow.project;
+
+public record ProjectMemberRow(
+        Long projectId,
+        Long userId,
+        String name
+) {}
@@ -0,0 +1,63 @@
+package io.github.kxng0109.taskflow.project;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+
+//Answers "is this user a member of this project" from the in-memory ProjectMembershipIndex, falling back to an exists
+//query on the projects_members join table instead of loading the project's member set. The (members_id, projects_id)
+//index and the join table's primary key make that a single index probe however many members the project has.
+@Component
+public class ProjectMembershipAuthorizer {
+    private final ProjectRepository projectRepository;
+    private final ProjectMembershipIndex membershipIndex;
+
+    public ProjectMembershipAuthorizer(ProjectRepository projectRepository, ProjectMembershipIndex membershipIndex) {
+        this.projectRepository = projectRepository;
+        this.membershipIndex = membershipIndex;
+    }
+
+    public boolean isMember(Long projectId, Long userId) {
+        if (membershipIndex.isMember(userId, projectId)) {
+            return true;
+        }
+        //The index may have missed a membership added by another instance, the database has the final say
+        boolean member = projectRepository.existsByIdAndMembersId(projectId, userId);
+        if (member) {
+            membershipIndex.addMembership(userId, projectId);
+        }
+        return member;
+    }
+
+    //Writes do not trust an index hit: the index is per instance, so a membership removed on another instance stays in
+    //it until the entry expires. The database answers instead, and a stale entry is dropped on the way.
+    public boolean isConfirmedMember(Long projectId, Long userId) {
+        boolean member = projectRepository.existsByIdAndMembersId(projectId, userId);
+        if (member) {
+            membershipIndex.addMembership(userId, projectId);
+        } else {
+            membershipIndex.evictUser(userId);
+        }
+        return member;
+    }
+
+    //The project existence query only runs when the membership check fails, to tell a 404 from a 403
+    public void requireMember(Long projectId, Long userId, String deniedMessage) {
+        if (!isMember(projectId, userId)) {
+            throw denied(projectId, deniedMessage);
+        }
+    }
+
+    public void requireConfirmedMember(Long projectId, Long userId, String deniedMessage) {
+        if (!isConfirmedMember(projectId, userId)) {
+            throw denied(projectId, deniedMessage);
+        }
+    }
+
+    private RuntimeException denied(Long projectId, String deniedMessage) {
+        if (!projectRepository.existsById(projectId)) {
+            return new EntityNotFoundException("Project with id " + projectId + " not found");
+        }
+        return new AccessDeniedException(deniedMessage);
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.kxng0109.taskflow.project;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+
+//In-process index of which projects each user belongs to, so most authorization checks never reach the database.
+//A user's project ids are loaded with one query the first time they are checked and kept as a compact ProjectIdSet.
+//The cache is bounded by an estimate of the bytes it holds, not by entry count, since users differ widely in how
+//many projects they are in.
+//
+//Changes made by this instance are applied after their transaction commits, so a rolled back change never shows up.
+//A missing id is never trusted on its own: the authorizer falls back to the database, which also covers changes
+//made by other instances. A hit is only trusted for reads, writes confirm it against the database, so the TTL bounds
+//how long reads on another instance can still see a removed membership.
+@Component
+public class ProjectMembershipIndex {
+    //Rough cost of the cache node and the boxed Long key that hold each entry
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+    private final ProjectRepository projectRepository;
+    private final Cache<Long, ProjectIdSet> cache;
+    private final boolean enabled;
+
+    public ProjectMembershipIndex(
+            ProjectRepository projectRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.membership-index.max-bytes:67108864}") long maxBytes,
+            @Value("${app.membership-index.ttl:10m}") Duration ttl
+    ) {
+        this.projectRepository = projectRepository;
+        this.enabled = maxBytes > 0;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(Math.max(maxBytes, 0))
+                .weigher((Long userId, ProjectIdSet projectIds) -> ENTRY_OVERHEAD_BYTES + projectIds.estimatedBytes())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "projectMemberships");
+    }
+
+    public boolean isMember(Long userId, Long projectId) {
+        if (!enabled) {
+            return false;
+        }
+        ProjectIdSet projectIds = cache.get(userId, id -> ProjectIdSet.of(projectRepository.findIdsByMemberId(id)));
+        return projectIds.contains(projectId);
+    }
+
+    public void addMembership(Long userId, Long projectId) {
+        afterCommit(() -> cache.asMap().computeIfPresent(userId, (id, projectIds) -> projectIds.with(projectId)));
+    }
+
+    public void removeMembership(Long userId, Long projectId) {
+        afterCommit(() -> cache.asMap().computeIfPresent(userId, (id, projectIds) -> projectIds.without(projectId)));
+    }
+
+    public void removeProject(Long projectId, Collection<Long> memberIds) {
+        afterCommit(() -> memberIds.forEach(userId ->
+                cache.asMap().computeIfPresent(userId, (id, projectIds) -> projectIds.without(projectId))));
+    }
+
+    //Not tied to a transaction: a dropped set is simply reloaded from the database on the user's next check
+    public void evictUser(Long userId) {
+        cache.invalidate(userId);
+    }
+
+    //Users that are not loaded are skipped, their set is read fresh from the database when they are next checked
+    private void afterCommit(Runnable update) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+}
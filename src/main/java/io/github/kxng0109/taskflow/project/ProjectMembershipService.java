@@ -0,0 +1,173 @@
+package io.github.kxng0109.taskflow.project;
+
+import io.github.kxng0109.taskflow.common.SecondLevelCacheEvictor;
+import io.github.kxng0109.taskflow.project.dto.BulkMemberRequest;
+import io.github.kxng0109.taskflow.project.dto.MemberChangeReport;
+import io.github.kxng0109.taskflow.project.dto.MemberChangeResult;
+import io.github.kxng0109.taskflow.project.dto.MemberChangeStatus;
+import io.github.kxng0109.taskflow.security.AuthenticatedUser;
+import io.github.kxng0109.taskflow.user.UserEmailRow;
+import io.github.kxng0109.taskflow.user.UserRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+//Adds or removes many members of a project at once without loading the project or its member set: the listed users
+//are resolved with one IN query, current membership among them with another, and the join rows are written with a
+//single JDBC batch. Every entry gets its own result, so one unknown email does not fail the rest.
+@Service
+public class ProjectMembershipService {
+    private static final String INSERT_MEMBER_SQL = "insert into projects_members (projects_id, members_id) values (?, ?)";
+    private static final String DELETE_MEMBER_SQL = "delete from projects_members where projects_id = ? and members_id = ?";
+
+    private final ProjectRepository projectRepository;
+    private final UserRepository userRepository;
+    private final ProjectMembershipAuthorizer membershipAuthorizer;
+    private final ProjectMembershipIndex membershipIndex;
+    private final SecondLevelCacheEvictor cacheEvictor;
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProjectMembershipService(
+            ProjectRepository projectRepository,
+            UserRepository userRepository,
+            ProjectMembershipAuthorizer membershipAuthorizer,
+            ProjectMembershipIndex membershipIndex,
+            SecondLevelCacheEvictor cacheEvictor,
+            JdbcTemplate jdbcTemplate
+    ) {
+        this.projectRepository = projectRepository;
+        this.userRepository = userRepository;
+        this.membershipAuthorizer = membershipAuthorizer;
+        this.membershipIndex = membershipIndex;
+        this.cacheEvictor = cacheEvictor;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional
+    public MemberChangeReport addMembers(Long projectId, BulkMemberRequest request, AuthenticatedUser currentUser) {
+        List<Entry> entries = resolveEntries(projectId, request, currentUser);
+        Set<Long> members = currentMembers(projectId, entries);
+
+        List<Long> added = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.status == null) {
+                entry.status = members.contains(entry.userId) ? MemberChangeStatus.ALREADY_MEMBER : MemberChangeStatus.ADDED;
+                if (entry.status == MemberChangeStatus.ADDED) {
+                    added.add(entry.userId);
+                }
+            }
+        }
+
+        if (!added.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_MEMBER_SQL, added.stream().map(userId -> new Object[]{projectId, userId}).toList());
+            added.forEach(userId -> membershipIndex.addMembership(userId, projectId));
+            cacheEvictor.evictProjectMembers(projectId);
+        }
+        return report(entries);
+    }
+
+    @Transactional
+    public MemberChangeReport removeMembers(Long projectId, BulkMemberRequest request, AuthenticatedUser currentUser) {
+        List<Entry> entries = resolveEntries(projectId, request, currentUser);
+        Set<Long> members = currentMembers(projectId, entries);
+
+        List<Long> removed = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.status == null) {
+                entry.status = members.contains(entry.userId) ? MemberChangeStatus.REMOVED : MemberChangeStatus.NOT_A_MEMBER;
+                if (entry.status == MemberChangeStatus.REMOVED) {
+                    removed.add(entry.userId);
+                }
+            }
+        }
+
+        if (!removed.isEmpty()) {
+            if (removed.size() >= projectRepository.countMembers(projectId)) {
+                throw new IllegalStateException("A project must keep at least one member");
+            }
+            jdbcTemplate.batchUpdate(DELETE_MEMBER_SQL, removed.stream().map(userId -> new Object[]{projectId, userId}).toList());
+            removed.forEach(userId -> membershipIndex.removeMembership(userId, projectId));
+            cacheEvictor.evictProjectMembers(projectId);
+        }
+        return report(entries);
+    }
+
+    //Entries that need no membership check (unknown or repeated users) come back with their status already set
+    private List<Entry> resolveEntries(Long projectId, BulkMemberRequest request, AuthenticatedUser currentUser) {
+        membershipAuthorizer.requireConfirmedMember(projectId, currentUser.id(), "You are not a member of this project");
+        //Bulk changes to one project take turns on its row, so the membership read below holds until commit
+        projectRepository.findWithLockById(projectId);
+
+        List<String> emails = request.emailsOrEmpty();
+        List<Long> userIds = request.userIdsOrEmpty();
+        List<UserEmailRow> users = emails.isEmpty() && userIds.isEmpty()
+                ? List.of()
+                : userRepository.findByEmailsOrIds(new HashSet<>(emails), new HashSet<>(userIds));
+        Map<String, UserEmailRow> usersByEmail = users.stream()
+                .collect(Collectors.toMap(UserEmailRow::email, Function.identity()));
+        Map<Long, UserEmailRow> usersById = users.stream()
+                .collect(Collectors.toMap(UserEmailRow::id, Function.identity()));
+
+        List<Entry> entries = new ArrayList<>(emails.size() + userIds.size());
+        emails.forEach(email -> entries.add(Entry.of(email, null, usersByEmail.get(email))));
+        userIds.forEach(userId -> entries.add(Entry.of(null, userId, usersById.get(userId))));
+
+        Set<Long> seenUserIds = new HashSet<>();
+        for (Entry entry : entries) {
+            if (!entry.found) {
+                entry.status = MemberChangeStatus.NOT_FOUND;
+            } else if (!seenUserIds.add(entry.userId)) {
+                entry.status = MemberChangeStatus.DUPLICATE;
+            }
+        }
+        return entries;
+    }
+
+    private Set<Long> currentMembers(Long projectId, List<Entry> entries) {
+        List<Long> userIds = entries.stream().filter(entry -> entry.status == null).map(entry -> entry.userId).toList();
+        if (userIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(projectRepository.findMemberIdsAmong(projectId, userIds));
+    }
+
+    private MemberChangeReport report(List<Entry> entries) {
+        int changed = 0;
+        int notFound = 0;
+        List<MemberChangeResult> results = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            if (entry.status == MemberChangeStatus.ADDED || entry.status == MemberChangeStatus.REMOVED) {
+                changed++;
+            } else if (entry.status == MemberChangeStatus.NOT_FOUND) {
+                notFound++;
+            }
+            results.add(new MemberChangeResult(entry.email, entry.userId, entry.status));
+        }
+        return new MemberChangeReport(changed, entries.size() - changed - notFound, notFound, results);
+    }
+
+    private static final class Entry {
+        private final String email;
+        private final Long userId;
+        private final boolean found;
+        private MemberChangeStatus status;
+
+        private Entry(String email, Long userId, boolean found) {
+            this.email = email;
+            this.userId = userId;
+            this.found = found;
+        }
+
+        //Unknown entries are reported back exactly as they were given
+        private static Entry of(String email, Long userId, UserEmailRow user) {
+            if (user == null) {
+                return new Entry(email, userId, false);
+            }
+            return new Entry(user.email(), user.id(), true);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.kxng0109.taskflow.project;
+
+import io.github.kxng0109.taskflow.task.TaskStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+//Removes projects that ProjectService.deleteProject only flagged. Tasks go first with set-based DELETE statements of
+//at most batch-size rows, each chunk committing on its own so no transaction or connection is held for long and
+//nothing is loaded into a persistence context. The project row goes last, together with its counters and member
+//rows; a project whose purge is interrupted is simply picked up again on the next run.
+@Component
+public class ProjectPurgeJob {
+    private static final String FIND_DELETED_SQL = "select id from projects where deleted = true order by id limit ?";
+    private static final String DELETE_TASK_CHUNK_SQL =
+            "delete from tasks where id in (select id from tasks where project_id = ? limit ?)";
+    private static final String DELETE_MEMBERS_SQL = "delete from projects_members where projects_id = ?";
+    private static final String DELETE_PROJECT_SQL = "delete from projects where id = ? and deleted = true";
+
+    private final Logger logger = LoggerFactory.getLogger(ProjectPurgeJob.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskStatsService taskStatsService;
+    private final int batchSize;
+
+    public ProjectPurgeJob(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            TaskStatsService taskStatsService,
+            @Value("${app.projects.purge-batch-size:1000}") int batchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskStatsService = taskStatsService;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.projects.purge-interval-ms:60000}",
+            fixedDelayString = "${app.projects.purge-interval-ms:60000}"
+    )
+    public void purgeDeletedProjects() {
+        List<Long> projectIds;
+        do {
+            projectIds = jdbcTemplate.queryForList(FIND_DELETED_SQL, Long.class, batchSize);
+            projectIds.forEach(this::purge);
+        } while (projectIds.size() == batchSize);
+    }
+
+    public void purge(Long projectId) {
+        long tasksDeleted = 0;
+        int chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> jdbcTemplate.update(DELETE_TASK_CHUNK_SQL, projectId, batchSize));
+            tasksDeleted += chunk;
+        } while (chunk > 0);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            taskStatsService.deleteCounters(projectId);
+            jdbcTemplate.update(DELETE_MEMBERS_SQL, projectId);
+            jdbcTemplate.update(DELETE_PROJECT_SQL, projectId);
+        });
+        logger.info("Purged deleted project {} and its {} tasks", projectId, tasksDeleted);
+    }
+}
@@ -1,13 +1,95 @@
 package io.github.kxng0109.taskflow.project;
 
-import io.github.kxng0109.taskflow.user.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProjectRepository extends JpaRepository<Project,Long> {
 
-    List<Project> findByMembersContaining(User currentUser);
+    boolean existsByIdAndMembersId(Long projectId, Long userId);
+
+    //The project and its members in a single joined select
+    @EntityGraph(attributePaths = "members")
+    Optional<Project> findWithMembersById(Long projectId);
+
+    //select ... for update on the project row, serializes writers that create or rebuild the project's task counters
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Project> findWithLockById(Long projectId);
+
+    //Conditional writes for If-Match: nothing changes unless the client's version is still the current one. The
+    //persistence context is cleared so the project read back afterwards is the updated row.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Project p
+            set p.name = :name, p.description = coalesce(nullif(:description, ''), p.description), p.version = p.version + 1
+            where p.id = :projectId and p.version = :version and p.deleted = false
+            """)
+    int updateIfVersion(
+            @Param("projectId") Long projectId,
+            @Param("version") Long version,
+            @Param("name") String name,
+            @Param("description") String description
+    );
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Project p set p.deleted = true, p.version = p.version + 1
+            where p.id = :projectId and p.version = :version and p.deleted = false
+            """)
+    int markDeletedIfVersion(@Param("projectId") Long projectId, @Param("version") Long version);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Project p set p.deleted = true, p.version = p.version + 1 where p.id = :projectId and p.deleted = false")
+    int markDeleted(@Param("projectId") Long projectId);
+
+    @Query("select m.id from Project p join p.members m where p.id = :projectId")
+    List<Long> findMemberIds(@Param("projectId") Long projectId);
+
+    @Query("select p.id from Project p where p.id > :afterId order by p.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("select m.id from Project p join p.members m where p.id = :projectId and m.id in :userIds")
+    List<Long> findMemberIdsAmong(@Param("projectId") Long projectId, @Param("userIds") Collection<Long> userIds);
+
+    @Query("select count(m) from Project p join p.members m where p.id = :projectId")
+    long countMembers(@Param("projectId") Long projectId);
+
+    @Query("select p.id from Project p join p.members m where m.id = :userId")
+    List<Long> findIdsByMemberId(@Param("userId") Long userId);
+
+    @Query("""
+            select new io.github.kxng0109.taskflow.project.ProjectSummaryRow(
+                p.id, p.name, p.description, (select count(t) from Task t where t.project = p))
+            from Project p join p.members m
+            where m.id = :userId
+              and p.name like :namePattern escape '\\'
+              and (p.name > :afterName or (p.name = :afterName and p.id > :afterId))
+            order by p.name, p.id
+            """)
+    List<ProjectSummaryRow> findSummariesByMemberId(
+            @Param("userId") Long userId,
+            @Param("namePattern") String namePattern,
+            @Param("afterName") String afterName,
+            @Param("afterId") Long afterId,
+            Limit limit
+    );
+
+    @Query("""
+            select new io.github.kxng0109.taskflow.project.ProjectMemberRow(p.id, m.id, m.name)
+            from Project p join p.members m
+            where p.id in :projectIds
+            order by m.name, m.id
+            """)
+    List<ProjectMemberRow> findMembersByProjectIds(@Param("projectIds") Collection<Long> projectIds);
 }
@@ -1,50 +1,143 @@
 package io.github.kxng0109.taskflow.project;
 
+import io.github.kxng0109.taskflow.common.KeysetCursor;
+import io.github.kxng0109.taskflow.common.SecondLevelCacheEvictor;
+import io.github.kxng0109.taskflow.common.dto.CursorPage;
+import io.github.kxng0109.taskflow.exception.InvalidCursorException;
+import io.github.kxng0109.taskflow.exception.PreconditionFailedException;
 import io.github.kxng0109.taskflow.project.dto.AddMemberRequest;
 import io.github.kxng0109.taskflow.project.dto.ProjectRequest;
+import io.github.kxng0109.taskflow.project.dto.ProjectSummaryResponse;
+import io.github.kxng0109.taskflow.project.dto.UserSummaryResponse;
+import io.github.kxng0109.taskflow.security.AuthenticatedUser;
 import io.github.kxng0109.taskflow.user.User;
 import io.github.kxng0109.taskflow.user.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
 public class ProjectService {
+    public static final int MAX_PAGE_SIZE = 200;
+
     private final ProjectRepository projectRepository;
     private final UserRepository userRepository;
-
-    public ProjectService(ProjectRepository projectRepository, UserRepository userRepository) {
+    private final ProjectMembershipIndex membershipIndex;
+    private final ProjectMembershipAuthorizer membershipAuthorizer;
+    private final SecondLevelCacheEvictor cacheEvictor;
+
+    public ProjectService(
+            ProjectRepository projectRepository,
+            UserRepository userRepository,
+            ProjectMembershipIndex membershipIndex,
+            ProjectMembershipAuthorizer membershipAuthorizer,
+            SecondLevelCacheEvictor cacheEvictor
+    ) {
         this.projectRepository = projectRepository;
         this.userRepository = userRepository;
+        this.membershipIndex = membershipIndex;
+        this.membershipAuthorizer = membershipAuthorizer;
+        this.cacheEvictor = cacheEvictor;
     }
 
     @Transactional
-    public Project createProject(ProjectRequest projectRequest, User currentUser) {
+    public Project createProject(ProjectRequest projectRequest, AuthenticatedUser currentUser) {
        Project newProject = Project.builder()
                 .name(projectRequest.name())
                 .description(projectRequest.description())
                 .build();
 
        Set<User> members = new HashSet<>();
-       members.add(currentUser);
+       members.add(userRepository.getReferenceById(currentUser.id()));
        newProject.setMembers(members);
 
-       return projectRepository.save(newProject);
+       Project savedProject = projectRepository.save(newProject);
+       membershipIndex.addMembership(currentUser.id(), savedProject.getId());
+       return savedProject;
     }
 
-    public Project getProjectById(Long projectId, User currentUser) {
+    @Transactional(readOnly = true)
+    public Project getProjectById(Long projectId, AuthenticatedUser currentUser) {
         return getIfUserIsAMemberOfProject(projectId, currentUser);
     }
 
-    public List<Project> getProjectsForUser(User currentUser) {
-        return projectRepository.findByMembersContaining(currentUser);
+    //Keyset pagination over (name, id): each page seeks past the previous one's last row instead of skipping rows,
+    //so every page costs the same. Two queries per page, the projects with their task counts and then their members.
+    @Transactional(readOnly = true)
+    public CursorPage<ProjectSummaryResponse> getProjectsForUser(
+            AuthenticatedUser currentUser,
+            int limit,
+            String cursor,
+            String namePrefix
+    ) {
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        KeysetCursor after = cursor != null ? KeysetCursor.decode(cursor) : KeysetCursor.of("", 0);
+        if (after.sortKey() == null) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+
+        //One extra row tells whether there is a next page without a count query
+        List<ProjectSummaryRow> projects = projectRepository.findSummariesByMemberId(
+                currentUser.id(),
+                toLikePrefix(namePrefix),
+                after.sortKey(),
+                after.id(),
+                Limit.of(pageSize + 1)
+        );
+        if (projects.isEmpty()) {
+            return new CursorPage<>(List.of(), null);
+        }
+
+        String nextCursor = null;
+        if (projects.size() > pageSize) {
+            projects = projects.subList(0, pageSize);
+            ProjectSummaryRow last = projects.getLast();
+            nextCursor = KeysetCursor.of(last.name(), last.id()).encode();
+        }
+
+        Map<Long, List<UserSummaryResponse>> membersByProject = projectRepository
+                .findMembersByProjectIds(projects.stream().map(ProjectSummaryRow::id).toList())
+                .stream()
+                .collect(Collectors.groupingBy(
+                        ProjectMemberRow::projectId,
+                        Collectors.mapping(member -> new UserSummaryResponse(member.userId(), member.name()), Collectors.toList())
+                ));
+
+        List<ProjectSummaryResponse> items = projects.stream()
+                .map(project -> new ProjectSummaryResponse(
+                        project.id(),
+                        project.name(),
+                        project.description(),
+                        project.taskCount(),
+                        membersByProject.getOrDefault(project.id(), List.of())
+                ))
+                .toList();
+        return new CursorPage<>(items, nextCursor);
     }
 
+    //With an expected version (from If-Match) the write is one conditional UPDATE and a stale version is rejected
+    //before the project and its members are ever loaded; they are only read afterwards for the response
     @Transactional
-    public Project updateProject(Long projectId, ProjectRequest projectRequest, User currentUser) {
+    public Project updateProject(
+            Long projectId,
+            ProjectRequest projectRequest,
+            Long expectedVersion,
+            AuthenticatedUser currentUser
+    ) {
+        if (expectedVersion != null) {
+            membershipAuthorizer.requireConfirmedMember(projectId, currentUser.id(), "You are not a member of this project");
+            int updated = projectRepository.updateIfVersion(
+                    projectId, expectedVersion, projectRequest.name(), projectRequest.description()
+            );
+            requireConditionalWrite(projectId, updated);
+            return getIfUserIsAMemberOfProject(projectId, currentUser);
+        }
+
         Project project = getIfUserIsAMemberOfProject(projectId, currentUser);
 
         project.setName(projectRequest.name());
@@ -55,36 +148,70 @@ public class ProjectService {
         return projectRepository.save(project);
     }
 
+    //Neither the project nor its members are loaded, membership is one exists query and the member ids are only read
+    //to update the index. Removing the entity would cascade to every task one row at a time, so the project is only
+    //flagged here and ProjectPurgeJob deletes its tasks, counters and member rows in chunks afterwards.
     @Transactional
-    public void deleteProject(Long projectId, User currentUser) {
-        Project project =  getIfUserIsAMemberOfProject(projectId, currentUser);
-        projectRepository.delete(project);
+    public void deleteProject(Long projectId, Long expectedVersion, AuthenticatedUser currentUser) {
+        membershipAuthorizer.requireConfirmedMember(projectId, currentUser.id(), "You are not a member of this project");
+        List<Long> memberIds = projectRepository.findMemberIds(projectId);
+        if (expectedVersion != null) {
+            requireConditionalWrite(projectId, projectRepository.markDeletedIfVersion(projectId, expectedVersion));
+        } else {
+            projectRepository.markDeleted(projectId);
+        }
+        cacheEvictor.evictProject(projectId);
+        membershipIndex.removeProject(projectId, memberIds);
     }
 
     @Transactional
-    public Project addMemberToProject(Long projectId, AddMemberRequest addMemberRequest,  User currentUser) {
+    public Project addMemberToProject(Long projectId, AddMemberRequest addMemberRequest,  AuthenticatedUser currentUser) {
         Project project = getIfUserIsAMemberOfProject(projectId, currentUser);
         User userToAdd = userRepository.findByEmail(addMemberRequest.email())
                 .orElseThrow(() -> new EntityNotFoundException("User not found with email: " + addMemberRequest.email()));
 
-        if(project.getMembers().contains(userToAdd)) {
+        if(project.hasMember(userToAdd.getId())) {
             throw new IllegalStateException("User is already member of this project");
         }
 
         //Get the existing set of members and add the new one
         project.getMembers().add(userToAdd);
 
-        return projectRepository.save(project);
+        Project savedProject = projectRepository.save(project);
+        membershipIndex.addMembership(userToAdd.getId(), projectId);
+        return savedProject;
     }
     
-    private Project getIfUserIsAMemberOfProject(Long projectId, User currentUser) {
-        Project project = projectRepository.findById(projectId)
+    //Every caller returns or changes the member list, so the project is loaded together with its members in one
+    //statement and membership is checked against that set instead of with a separate query
+    private Project getIfUserIsAMemberOfProject(Long projectId, AuthenticatedUser currentUser) {
+        Project project = projectRepository.findWithMembersById(projectId)
                 .orElseThrow(() -> new EntityNotFoundException("Project with id " + projectId + " not found"));
 
-        if(!project.getMembers().contains(currentUser)){
+        if(!project.hasMember(currentUser.id())){
             throw new AccessDeniedException("You are not a member of this project");
         }
-        
-        return  project;
+
+        return project;
+    }
+
+    //No row matched: either the version moved on, or the project was deleted after the membership check
+    private void requireConditionalWrite(Long projectId, int updatedRows) {
+        if (updatedRows > 0) {
+            return;
+        }
+        if (!projectRepository.existsById(projectId)) {
+            throw new EntityNotFoundException("Project with id " + projectId + " not found");
+        }
+        throw new PreconditionFailedException("Project with id " + projectId + " has been modified, reload it and retry");
+    }
+
+    private String toLikePrefix(String namePrefix) {
+        if (namePrefix == null || namePrefix.isEmpty()) {
+            return "%";
+        }
+        return namePrefix.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
     }
 }
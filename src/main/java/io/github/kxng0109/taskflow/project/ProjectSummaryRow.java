@@ -0,0 +1,9 @@
+package io.github.kxng0109.taskflow.project;
+
+//Row of the project list query, the task count is an aggregate so no task is ever loaded
+public record ProjectSummaryRow(
+        Long id,
+        String name,
+        String description,
+        Long taskCount
+) {}
@@ -0,0 +1,24 @@
+package io.github.kxng0109.taskflow.project.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BulkMemberRequest(
+        @Size(max = 1000, message = "At most 1000 emails per request")
+        List<@NotBlank(message = "Email cannot be blank") @Email(message = "Must be a valid email format") String> emails,
+
+        @Size(max = 1000, message = "At most 1000 user ids per request")
+        List<@NotNull(message = "User id cannot be null") Long> userIds
+) {
+    public List<String> emailsOrEmpty() {
+        return emails != null ? emails : List.of();
+    }
+
+    public List<Long> userIdsOrEmpty() {
+        return userIds != null ? userIds : List.of();
+    }
+}
@@ -0,0 +1,10 @@
+package io.github.kxng0109.taskflow.project.dto;
+
+import java.util.List;
+
+public record MemberChangeReport(
+        int changed,
+        int unchanged,
+        int notFound,
+        List<MemberChangeResult> results
+) {}
@@ -0,0 +1,7 @@
+package io.github.kxng0109.taskflow.project.dto;
+
+public record MemberChangeResult(
+        String email,
+        Long userId,
+        MemberChangeStatus status
+) {}
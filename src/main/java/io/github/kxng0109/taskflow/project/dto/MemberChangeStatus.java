@@ -0,0 +1,10 @@
+package io.github.kxng0109.taskflow.project.dto;
+
+public enum MemberChangeStatus {
+    ADDED,
+    REMOVED,
+    ALREADY_MEMBER,
+    NOT_A_MEMBER,
+    NOT_FOUND,
+    DUPLICATE
+}
@@ -0,0 +1,11 @@
+package io.github.kxng0109.taskflow.project.dto;
+
+import java.util.List;
+
+public record ProjectSummaryResponse(
+        long id,
+        String name,
+        String description,
+        long taskCount,
+        List<UserSummaryResponse> members
+) {}
@@ -0,0 +1,37 @@
+package io.github.kxng0109.taskflow.security;
+
+import io.github.kxng0109.taskflow.user.Role;
+import io.github.kxng0109.taskflow.user.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+//Lightweight, immutable principal placed in the security context instead of the User entity
+public record AuthenticatedUser(
+        Long id,
+        String email,
+        String name,
+        Role role
+) implements UserDetails {
+    public static AuthenticatedUser from(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getName(), user.getRole());
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return this.email;
+    }
+}
@@ -2,20 +2,24 @@ package io.github.kxng0109.taskflow.security;
 
 import io.github.kxng0109.taskflow.security.dto.AuthResponse;
 import io.github.kxng0109.taskflow.security.dto.LoginRequest;
+import io.github.kxng0109.taskflow.security.dto.RefreshTokenRequest;
 import io.github.kxng0109.taskflow.security.dto.RegistrationRequest;
 import io.github.kxng0109.taskflow.security.jwt.JwtTokenProvider;
+import io.github.kxng0109.taskflow.security.jwt.JwtVerificationResult;
+import io.github.kxng0109.taskflow.security.jwt.VerifiedToken;
+import io.github.kxng0109.taskflow.security.token.RefreshTokenService;
+import io.github.kxng0109.taskflow.security.token.TokenRevocationList;
+import io.github.kxng0109.taskflow.user.User;
 import io.github.kxng0109.taskflow.user.UserService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -23,11 +27,21 @@ public class AuthenticationController {
     private final UserService userService;
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider jwtTokenProvider;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationList tokenRevocationList;
 
-    public AuthenticationController(UserService userService, AuthenticationManager authenticationManager, JwtTokenProvider jwtTokenProvider) {
+    public AuthenticationController(
+            UserService userService,
+            AuthenticationManager authenticationManager,
+            JwtTokenProvider jwtTokenProvider,
+            RefreshTokenService refreshTokenService,
+            TokenRevocationList tokenRevocationList
+    ) {
         this.userService = userService;
         this.authenticationManager = authenticationManager;
         this.jwtTokenProvider = jwtTokenProvider;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationList = tokenRevocationList;
     }
 
     @PostMapping("/register")
@@ -46,6 +60,34 @@ public class AuthenticationController {
         );
         SecurityContextHolder.getContext().setAuthentication(authentication);
         String token = jwtTokenProvider.generateJwtToken(authentication);
-        return ResponseEntity.ok(new AuthResponse(token));
+        String refreshToken = refreshTokenService.issueRefreshToken(((UserCredentials) authentication.getPrincipal()).id());
+        return ResponseEntity.ok(new AuthResponse(token, refreshToken));
+    }
+
+    //Renews the access token without a password check, so short access token lifetimes add no BCrypt load
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest refreshTokenRequest) {
+        User user = refreshTokenService.consumeRefreshToken(refreshTokenRequest.refreshToken());
+        String token = jwtTokenProvider.generateJwtToken(user);
+        String refreshToken = refreshTokenService.issueRefreshToken(user.getId());
+        return ResponseEntity.ok(new AuthResponse(token, refreshToken));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @Valid @RequestBody RefreshTokenRequest refreshTokenRequest,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorizationHeader
+    ) {
+        refreshTokenService.revokeRefreshToken(refreshTokenRequest.refreshToken());
+
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
+            JwtVerificationResult verification = jwtTokenProvider.verify(authorizationHeader.substring(7));
+            if (verification.isValid() && verification.token().tokenId() != null) {
+                VerifiedToken accessToken = verification.token();
+                tokenRevocationList.revoke(accessToken.tokenId(), accessToken.expiresAt());
+            }
+        }
+
+        return ResponseEntity.noContent().build();
     }
 }
@@ -0,0 +1,47 @@
+package io.github.kxng0109.taskflow.security;
+
+import io.github.kxng0109.taskflow.user.Role;
+import io.github.kxng0109.taskflow.user.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+//Immutable copy of what a login needs from a user, including the password hash. This is what the user cache holds
+//and hands to every request thread, so no managed, mutable User entity is ever shared between them.
+public record UserCredentials(
+        Long id,
+        String email,
+        String name,
+        String passwordHash,
+        Role role
+) implements UserDetails {
+    public static UserCredentials from(User user) {
+        return new UserCredentials(user.getId(), user.getEmail(), user.getName(), user.getPassword(), user.getRole());
+    }
+
+    public UserCredentials withPasswordHash(String newPasswordHash) {
+        return new UserCredentials(id, email, name, newPasswordHash, role);
+    }
+
+    public AuthenticatedUser toAuthenticatedUser() {
+        return new AuthenticatedUser(id, email, name, role);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getPassword() {
+        return this.passwordHash;
+    }
+
+    @Override
+    public String getUsername() {
+        return this.email;
+    }
+}
@@ -1,26 +1,77 @@
 package io.github.kxng0109.taskflow.security;
 
-import io.github.kxng0109.taskflow.user.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.github.kxng0109.taskflow.user.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
+import java.time.Duration;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
-    public UserDetailsServiceImpl(UserRepository userRepository) {
+    //Bounded, size-evicted (LRU-style) and time-limited cache of users by email. It holds immutable UserCredentials
+    //snapshots, never User entities, since every entry is shared by all request threads.
+    //Hits, misses and evictions are published as the "cache.*" metrics tagged with cache=userDetails.
+    private final Cache<String, UserCredentials> userCache;
+
+    public UserDetailsServiceImpl(
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.security.user-cache.max-size:10000}") long maxSize,
+            @Value("${app.security.user-cache.ttl:5m}") Duration ttl
+    ) {
         this.userRepository = userRepository;
+        this.userCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userCache, "userDetails");
     }
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+        return findUser(email);
+    }
+
+    public AuthenticatedUser loadAuthenticatedUser(String email) throws UsernameNotFoundException {
+        return findUser(email).toAuthenticatedUser();
+    }
+
+    //Called by Spring Security after a successful login when the stored hash is due for an upgrade
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePasswordByEmail(user.getUsername(), newPassword);
+        evictUser(user.getUsername());
+        return ((UserCredentials) user).withPasswordHash(newPassword);
+    }
+
+    //Must be called by every path that changes or removes a user. New users need no eviction, unknown emails are
+    //never cached
+    public void evictUser(String email) {
+        userCache.invalidate(email);
+    }
+
+    public void evictAllUsers() {
+        userCache.invalidateAll();
+    }
+
+    private UserCredentials findUser(String email) {
+        //Unknown emails are not cached, the exception escapes the loader and nothing is stored
+        return userCache.get(email, key -> userRepository.findByEmail(key)
+                .map(UserCredentials::from)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + key)));
     }
 }
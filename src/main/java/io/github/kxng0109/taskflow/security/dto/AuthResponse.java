@@ -1,4 +1,4 @@
 package io.github.kxng0109.taskflow.security.dto;
 
-public record AuthResponse(String accessToken) {
+public record AuthResponse(String accessToken, String refreshToken) {
 }
@@ -0,0 +1,9 @@
+package io.github.kxng0109.taskflow.security.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record RefreshTokenRequest(
+        @NotBlank(message = "Refresh token cannot be blank")
+        String refreshToken
+) {
+}
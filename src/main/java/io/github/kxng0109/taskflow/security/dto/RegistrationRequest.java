@@ -6,13 +6,16 @@ import jakarta.validation.constraints.Size;
 
 public record RegistrationRequest(
         @NotNull(message = "Name cannot be empty")
+        @Size(max = 255, message = "Name must be at most 255 characters long")
         String name,
 
         @NotNull(message = "Email cannot be blank")
         @Email(message = "Must be a valid email format")
+        @Size(max = 255, message = "Email must be at most 255 characters long")
         String email,
 
         @NotNull(message = "Password cannot be blank")
         @Size(min = 8, message = "Password must be at least 8 characters long")
+        @Size(max = 72, message = "Password must be at most 72 characters long")
         String password
 ){}
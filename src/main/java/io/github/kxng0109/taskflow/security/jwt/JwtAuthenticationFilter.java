@@ -1,50 +1,98 @@
 package io.github.kxng0109.taskflow.security.jwt;
 
+import io.github.kxng0109.taskflow.security.AuthenticatedUser;
+import io.github.kxng0109.taskflow.security.SecurityConfig;
 import io.github.kxng0109.taskflow.security.UserDetailsServiceImpl;
+import io.github.kxng0109.taskflow.security.token.TokenRevocationList;
+import io.github.kxng0109.taskflow.user.Role;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtTokenProvider jwtTokenProvider;
-    private final UserDetailsService userDetailsService;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final TokenRevocationList tokenRevocationList;
+    private final JwtFailureMonitor jwtFailureMonitor;
+    private final boolean statelessAuth;
 
-    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserDetailsServiceImpl userDetailsService) {
+    //Both are stateless and shared by all requests
+    private final WebAuthenticationDetailsSource authenticationDetailsSource = new WebAuthenticationDetailsSource();
+    private final RequestMatcher publicPaths = new OrRequestMatcher(
+            Arrays.stream(SecurityConfig.PUBLIC_PATHS)
+                    .map(path -> (RequestMatcher) PathPatternRequestMatcher.withDefaults().matcher(path))
+                    .toList()
+    );
+
+    public JwtAuthenticationFilter(
+            JwtTokenProvider jwtTokenProvider,
+            UserDetailsServiceImpl userDetailsService,
+            TokenRevocationList tokenRevocationList,
+            JwtFailureMonitor jwtFailureMonitor,
+            @Value("${app.jwt.stateless-auth:false}") boolean statelessAuth
+    ) {
         this.jwtTokenProvider = jwtTokenProvider;
         this.userDetailsService = userDetailsService;
+        this.tokenRevocationList = tokenRevocationList;
+        this.jwtFailureMonitor = jwtFailureMonitor;
+        this.statelessAuth = statelessAuth;
+    }
+
+    //Public endpoints never look at the security context, so their tokens are not worth verifying.
+    //Logout reads its Authorization header itself.
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return publicPaths.matches(request);
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         try{
             String jwt = getJwtFromRequest(request);
-            if (jwt != null && jwtTokenProvider.validateJwtToken(jwt)) {
-                String email = jwtTokenProvider.getEmailFromJwtToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities()
-                );
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+            if (jwt != null) {
+                JwtVerificationResult verification = jwtTokenProvider.verify(jwt);
+                if (verification.isValid() && !isRevoked(verification.token())) {
+                    AuthenticatedUser principal = resolvePrincipal(verification.token());
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            principal, null, principal.getAuthorities()
+                    );
+                    authentication.setDetails(authenticationDetailsSource.buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
             }
         }catch(Exception e){
-            logger.error("Could not set user authentication in security context", e);
+            jwtFailureMonitor.recordError(e);
         }
 
         filterChain.doFilter(request, response);
     }
 
+    private boolean isRevoked(VerifiedToken token) {
+        return token.tokenId() != null && tokenRevocationList.isRevoked(token.tokenId());
+    }
+
+    private AuthenticatedUser resolvePrincipal(VerifiedToken token) {
+        //Tokens issued before the id, name and role claims existed still fall back to the database
+        if (statelessAuth && token.userId() != null && token.name() != null && token.role() != null) {
+            return new AuthenticatedUser(token.userId(), token.subject(), token.name(), Role.valueOf(token.role()));
+        }
+        return userDetailsService.loadAuthenticatedUser(token.subject());
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
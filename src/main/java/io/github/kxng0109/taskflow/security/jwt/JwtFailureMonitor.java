@@ -0,0 +1,79 @@
+package io.github.kxng0109.taskflow.security.jwt;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Counts rejected tokens by reason and logs at most one line per reason per interval. A client stuck on a bad token
+//would otherwise write a log line on every request; the counters keep the exact numbers for dashboards.
+@Component
+public class JwtFailureMonitor {
+    private final Logger logger = LoggerFactory.getLogger(JwtFailureMonitor.class);
+
+    private final Map<JwtFailureReason, Counter> failureCounters = new EnumMap<>(JwtFailureReason.class);
+    private final Map<JwtFailureReason, RateLimitedLog> failureLogs = new EnumMap<>(JwtFailureReason.class);
+    private final Counter errorCounter;
+    private final RateLimitedLog errorLog;
+
+    public JwtFailureMonitor(
+            MeterRegistry meterRegistry,
+            @Value("${app.jwt.failure-log-interval-ms:60000}") long logIntervalMs
+    ) {
+        for (JwtFailureReason reason : JwtFailureReason.values()) {
+            failureCounters.put(reason, Counter.builder("jwt.verification.failures")
+                    .description("Access tokens rejected during verification")
+                    .tag("reason", reason.getMetricTag())
+                    .register(meterRegistry));
+            failureLogs.put(reason, new RateLimitedLog(logIntervalMs));
+        }
+        this.errorCounter = Counter.builder("jwt.authentication.errors")
+                .description("Unexpected errors while authenticating a request from its token")
+                .register(meterRegistry);
+        this.errorLog = new RateLimitedLog(logIntervalMs);
+    }
+
+    public void recordFailure(JwtFailureReason reason) {
+        failureCounters.get(reason).increment();
+        long suppressed = failureLogs.get(reason).tryAcquire();
+        if (suppressed >= 0) {
+            logger.warn("Rejected JWT token: {} ({} similar rejections not logged)", reason.getMetricTag(), suppressed);
+        }
+    }
+
+    public void recordError(Exception e) {
+        errorCounter.increment();
+        long suppressed = errorLog.tryAcquire();
+        if (suppressed >= 0) {
+            logger.warn("Could not set user authentication in security context: {} ({} similar errors not logged)",
+                        e.toString(), suppressed);
+        }
+    }
+
+    private static final class RateLimitedLog {
+        private final long intervalMs;
+        private final AtomicLong nextLogAt = new AtomicLong();
+        private final AtomicLong suppressed = new AtomicLong();
+
+        private RateLimitedLog(long intervalMs) {
+            this.intervalMs = intervalMs;
+        }
+
+        //Returns how many events were skipped since the last line, or -1 when this event should not be logged
+        private long tryAcquire() {
+            long now = System.currentTimeMillis();
+            long next = nextLogAt.get();
+            if (now >= next && nextLogAt.compareAndSet(next, now + intervalMs)) {
+                return suppressed.getAndSet(0);
+            }
+            suppressed.incrementAndGet();
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.kxng0109.taskflow.security.jwt;
+
+public enum JwtFailureReason {
+    MALFORMED("malformed"),
+    EXPIRED("expired"),
+    UNSUPPORTED("unsupported"),
+    INVALID_SIGNATURE("signature"),
+    EMPTY("empty");
+
+    private final String metricTag;
+
+    JwtFailureReason(String metricTag) {
+        this.metricTag = metricTag;
+    }
+
+    public String getMetricTag() {
+        return metricTag;
+    }
+}
@@ -1,66 +1,126 @@
 package io.github.kxng0109.taskflow.security.jwt;
 
+import io.github.kxng0109.taskflow.security.UserCredentials;
+import io.github.kxng0109.taskflow.user.Role;
+import io.github.kxng0109.taskflow.user.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import io.jsonwebtoken.security.SecurityException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.time.Instant;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtTokenProvider {
-    private Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String NAME_CLAIM = "name";
+    private static final String ROLE_CLAIM = "role";
 
-    @Value("${app.jwt.secret}")
-    private String jwtSecret;
+    private final int jwtExpirationMs;
 
-    @Value("${app.jwt.expiration-ms}")
-    private int jwtExpirationMs;
+    //Both the key and the parser are immutable and thread-safe, so they are built once and shared by all requests
+    private final SecretKey key;
+    private final JwtParser jwtParser;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final JwtFailureMonitor jwtFailureMonitor;
+
+    public JwtTokenProvider(
+            @Value("${app.jwt.secret}") String jwtSecret,
+            @Value("${app.jwt.expiration-ms}") int jwtExpirationMs,
+            VerifiedTokenCache verifiedTokenCache,
+            JwtFailureMonitor jwtFailureMonitor
+    ) {
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.jwtFailureMonitor = jwtFailureMonitor;
+        this.key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.jwtParser = Jwts.parser().verifyWith(key).build();
+    }
 
     public String generateJwtToken(Authentication authentication) {
-        String username = authentication.getName();
+        if (authentication.getPrincipal() instanceof UserCredentials user) {
+            return buildToken(user.email(), user.id(), user.name(), user.role());
+        }
+        return buildToken(authentication.getName(), null, null, null);
+    }
+
+    public String generateJwtToken(User user) {
+        return buildToken(user.getEmail(), user.getId(), user.getName(), user.getRole());
+    }
+
+    //Tokens seen before are answered from the cache, others are parsed and have their signature checked exactly once
+    public JwtVerificationResult verify(String token) {
+        if (token == null || token.isBlank()) {
+            return parseAndVerify(token);
+        }
+
+        String tokenDigest = verifiedTokenCache.digest(token);
+        VerifiedToken cachedToken = verifiedTokenCache.get(tokenDigest);
+        //The entry may outlive its expiry by a moment until the cache cleans it up
+        if (cachedToken != null && cachedToken.expiresAt().isAfter(Instant.now())) {
+            return JwtVerificationResult.valid(cachedToken);
+        }
+
+        JwtVerificationResult result = parseAndVerify(token);
+        if (result.isValid()) {
+            verifiedTokenCache.put(tokenDigest, result.token());
+        }
+        return result;
+    }
+
+    private String buildToken(String username, Long userId, String name, Role role) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
 
-        return Jwts.builder()
+        //The id (jti) is what a revocation refers to
+        JwtBuilder builder = Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(username)
                 .issuedAt(now)
-                .expiration(expiryDate)
-                .signWith(key())
-                .compact();
-    }
+                .expiration(expiryDate);
 
-    public String getEmailFromJwtToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(key())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        //The id, display name and role let the filter build the principal without a database lookup
+        if (userId != null) {
+            builder.claim(USER_ID_CLAIM, userId)
+                    .claim(NAME_CLAIM, name)
+                    .claim(ROLE_CLAIM, role.name());
+        }
 
-        return claims.getSubject();
+        return builder.signWith(key).compact();
     }
 
-    public boolean validateJwtToken(String authToken) {
+    private JwtVerificationResult parseAndVerify(String token) {
         try{
-            Jwts.parser().verifyWith(key()).build().parse(authToken);
-            return true;
-        }catch(MalformedJwtException e){
-            logger.error("Invalid JWT Token");
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+            return JwtVerificationResult.valid(new VerifiedToken(
+                    claims.getId(),
+                    claims.getSubject(),
+                    claims.get(USER_ID_CLAIM, Long.class),
+                    claims.get(NAME_CLAIM, String.class),
+                    claims.get(ROLE_CLAIM, String.class),
+                    claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                    claims.getExpiration() != null ? claims.getExpiration().toInstant() : null
+            ));
         }catch(ExpiredJwtException e){
-            logger.error("Expired JWT Token");
+            return rejected(JwtFailureReason.EXPIRED);
         }catch(UnsupportedJwtException e){
-            logger.error("Unsupported JWT Token");
+            return rejected(JwtFailureReason.UNSUPPORTED);
+        }catch(SecurityException e){
+            return rejected(JwtFailureReason.INVALID_SIGNATURE);
+        }catch(JwtException e){
+            return rejected(JwtFailureReason.MALFORMED);
         }catch(IllegalArgumentException e){
-            logger.error("JWT claims string is empty");
+            return rejected(JwtFailureReason.EMPTY);
         }
-        return false;
     }
 
-    private SecretKey key() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    private JwtVerificationResult rejected(JwtFailureReason reason) {
+        jwtFailureMonitor.recordFailure(reason);
+        return JwtVerificationResult.invalid(reason);
     }
 }
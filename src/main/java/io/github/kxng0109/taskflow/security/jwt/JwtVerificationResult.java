@@ -0,0 +1,18 @@
+package io.github.kxng0109.taskflow.security.jwt;
+
+public record JwtVerificationResult(
+        VerifiedToken token,
+        JwtFailureReason failureReason
+) {
+    public static JwtVerificationResult valid(VerifiedToken token) {
+        return new JwtVerificationResult(token, null);
+    }
+
+    public static JwtVerificationResult invalid(JwtFailureReason failureReason) {
+        return new JwtVerificationResult(null, failureReason);
+    }
+
+    public boolean isValid() {
+        return token != null;
+    }
+}
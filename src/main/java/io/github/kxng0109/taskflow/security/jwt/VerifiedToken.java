@@ -0,0 +1,14 @@
+package io.github.kxng0109.taskflow.security.jwt;
+
+import java.time.Instant;
+
+public record VerifiedToken(
+        String tokenId,
+        String subject,
+        Long userId,
+        String name,
+        String role,
+        Instant issuedAt,
+        Instant expiresAt
+) {
+}
@@ -0,0 +1,83 @@
+package io.github.kxng0109.taskflow.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+//Remembers tokens whose signature has already been verified, keyed by a SHA-256 digest so raw tokens are never held.
+//Caffeine reads are lock-free and its write buffers are striped, so lookups do not contend across request threads.
+@Component
+public class VerifiedTokenCache {
+    private final Cache<String, VerifiedToken> cache;
+    private final boolean enabled;
+
+    public VerifiedTokenCache(
+            MeterRegistry meterRegistry,
+            @Value("${app.jwt.verified-cache.max-size:100000}") long maxSize
+    ) {
+        //Caffeine evicts over the size bound asynchronously, so a zero-sized cache is bypassed instead of relied on
+        this.enabled = maxSize > 0;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(Math.max(maxSize, 0))
+                .expireAfter(new ExpireAtTokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "verifiedTokens");
+        Gauge.builder("jwt.verified.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of token verifications served from the cache")
+                .register(meterRegistry);
+    }
+
+    public VerifiedToken get(String tokenDigest) {
+        return cache.getIfPresent(tokenDigest);
+    }
+
+    public void put(String tokenDigest, VerifiedToken token) {
+        //Tokens without an expiry would never leave the cache on their own, so they are always re-verified
+        if (enabled && token.expiresAt() != null && token.expiresAt().isAfter(Instant.now())) {
+            cache.put(tokenDigest, token);
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public String digest(String token) {
+        try{
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        }catch(NoSuchAlgorithmException e){
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static class ExpireAtTokenExpiry implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), token.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
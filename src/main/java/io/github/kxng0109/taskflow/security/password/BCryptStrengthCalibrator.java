@@ -0,0 +1,48 @@
+package io.github.kxng0109.taskflow.security.password;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+//Picks the highest BCrypt work factor whose hash time on this host stays within the target latency.
+//Each extra point of strength doubles the cost, so the next step is only tried when it is predicted to fit.
+public class BCryptStrengthCalibrator {
+    private static final String SAMPLE_PASSWORD = "calibration-password";
+    private static final int WARMUP_STRENGTH = 4;
+    private static final int WARMUP_ROUNDS = 5;
+
+    private final Logger logger = LoggerFactory.getLogger(BCryptStrengthCalibrator.class);
+
+    private final long targetHashMs;
+    private final int minStrength;
+    private final int maxStrength;
+
+    public BCryptStrengthCalibrator(long targetHashMs, int minStrength, int maxStrength) {
+        this.targetHashMs = targetHashMs;
+        this.minStrength = minStrength;
+        this.maxStrength = maxStrength;
+    }
+
+    public int calibrate() {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            new BCryptPasswordEncoder(WARMUP_STRENGTH).encode(SAMPLE_PASSWORD);
+        }
+
+        int strength = minStrength;
+        long elapsedMs = measure(strength);
+        while (strength < maxStrength && elapsedMs * 2 <= targetHashMs) {
+            strength++;
+            elapsedMs = measure(strength);
+        }
+
+        logger.info("Calibrated BCrypt strength to {} ({} ms per hash, target {} ms)", strength, elapsedMs, targetHashMs);
+        return strength;
+    }
+
+    private long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long start = System.nanoTime();
+        encoder.encode(SAMPLE_PASSWORD);
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
@@ -0,0 +1,40 @@
+package io.github.kxng0109.taskflow.security.password;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+//Hands the expensive encode and matches calls to the PasswordHashingExecutor
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor passwordHashingExecutor) {
+        this.delegate = delegate;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return passwordHashingExecutor.execute(() -> delegate.encode(rawPassword));
+    }
+
+    //Hashes a batch in parallel across the hashing pool, results come back in the order of the input
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        List<Supplier<String>> hashingJobs = rawPasswords.stream()
+                .<Supplier<String>>map(rawPassword -> () -> delegate.encode(rawPassword))
+                .toList();
+        return passwordHashingExecutor.executeAll(hashingJobs);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return passwordHashingExecutor.execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,124 @@
+package io.github.kxng0109.taskflow.security.password;
+
+import io.github.kxng0109.taskflow.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+//Runs password hashing on its own fixed-size pool with a bounded queue, so a login burst cannot occupy every
+//request thread. Once the queue is full new work is rejected straight away instead of waiting.
+@Component
+public class PasswordHashingExecutor implements DisposableBean {
+    private final ThreadPoolExecutor executor;
+    private final Timer hashTimer;
+    private final long retryAfterSeconds;
+    private final int poolSize;
+
+    public PasswordHashingExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${app.security.password-hashing.threads:0}") int threads,
+            @Value("${app.security.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${app.security.password-hashing.retry-after-seconds:1}") long retryAfterSeconds
+    ) {
+        this.poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        this.hashTimer = Timer.builder("password.hashing.latency")
+                .description("Time spent hashing or matching a password")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.queue.size", executor, e -> e.getQueue().size())
+                .description("Password hashing jobs waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing jobs currently running")
+                .register(meterRegistry);
+    }
+
+    public <T> T execute(Supplier<T> hashingJob) {
+        Future<T> future;
+        try{
+            future = executor.submit(() -> hashTimer.record(hashingJob));
+        }catch(RejectedExecutionException e){
+            throw new ServiceOverloadedException("Too many authentication requests, please retry shortly", retryAfterSeconds);
+        }
+        return await(future);
+    }
+
+    //Runs a batch of jobs across the pool and returns their results in the same order. At most poolSize jobs of
+    //the batch are queued at a time so one bulk request cannot fill the queue and starve interactive logins.
+    public <T> List<T> executeAll(List<Supplier<T>> hashingJobs) {
+        List<T> results = new ArrayList<>(hashingJobs.size());
+        Deque<Future<T>> inFlight = new ArrayDeque<>();
+
+        for (Supplier<T> hashingJob : hashingJobs) {
+            if (inFlight.size() >= poolSize) {
+                results.add(await(inFlight.removeFirst()));
+            }
+            while (true) {
+                try{
+                    inFlight.addLast(executor.submit(() -> hashTimer.record(hashingJob)));
+                    break;
+                }catch(RejectedExecutionException e){
+                    //The queue is full of other callers' work, wait on our own oldest job before trying again
+                    if (inFlight.isEmpty()) {
+                        throw new ServiceOverloadedException("Too many authentication requests, please retry shortly", retryAfterSeconds);
+                    }
+                    results.add(await(inFlight.removeFirst()));
+                }
+            }
+        }
+
+        while (!inFlight.isEmpty()) {
+            results.add(await(inFlight.removeFirst()));
+        }
+        return results;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    private <T> T await(Future<T> future) {
+        try{
+            return future.get();
+        }catch(InterruptedException e){
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        }catch(ExecutionException e){
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
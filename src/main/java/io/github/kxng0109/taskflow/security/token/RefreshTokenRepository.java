@@ -0,0 +1,29 @@
+package io.github.kxng0109.taskflow.security.token;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    @Query("select r from RefreshToken r join fetch r.user where r.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHashWithUser(@Param("tokenHash") String tokenHash);
+
+    //Only one of several concurrent calls for the same token can flip it, the others update nothing
+    @Modifying
+    @Query("update RefreshToken r set r.revoked = true where r.tokenHash = :tokenHash and r.revoked = false")
+    int revokeIfUnused(@Param("tokenHash") String tokenHash);
+
+    @Modifying
+    @Query("update RefreshToken r set r.revoked = true where r.user.id = :userId and r.revoked = false")
+    int revokeAllForUser(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("delete from RefreshToken r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,96 @@
+package io.github.kxng0109.taskflow.security.token;
+
+import io.github.kxng0109.taskflow.user.User;
+import io.github.kxng0109.taskflow.user.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+
+@Service
+public class RefreshTokenService {
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final long refreshExpirationMs;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public RefreshTokenService(
+            RefreshTokenRepository refreshTokenRepository,
+            UserRepository userRepository,
+            @Value("${app.jwt.refresh-expiration-ms}") long refreshExpirationMs
+    ) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.refreshExpirationMs = refreshExpirationMs;
+    }
+
+    @Transactional
+    public String issueRefreshToken(Long userId) {
+        byte[] tokenBytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(tokenBytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(tokenBytes);
+
+        RefreshToken refreshToken = RefreshToken.builder()
+                .tokenHash(hash(rawToken))
+                .user(userRepository.getReferenceById(userId))
+                .expiresAt(Instant.now().plusMillis(refreshExpirationMs))
+                .revoked(false)
+                .build();
+        refreshTokenRepository.save(refreshToken);
+
+        return rawToken;
+    }
+
+    //Refresh tokens are single use, each successful call revokes the presented token.
+    //Presenting an already revoked token means it was copied, so every session of that user is ended.
+    //The token is consumed with a conditional update rather than by checking the loaded row, so two concurrent
+    //refreshes with the same token cannot both see it unused: the loser updates nothing and is treated as a reuse.
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public User consumeRefreshToken(String rawToken) {
+        String tokenHash = hash(rawToken);
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHashWithUser(tokenHash)
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+
+        if (!refreshToken.isRevoked() && refreshToken.getExpiresAt().isBefore(Instant.now())) {
+            throw new BadCredentialsException("Refresh token has expired");
+        }
+        if (refreshToken.isRevoked() || refreshTokenRepository.revokeIfUnused(tokenHash) == 0) {
+            refreshTokenRepository.revokeAllForUser(refreshToken.getUser().getId());
+            throw new BadCredentialsException("Refresh token has already been used");
+        }
+
+        return refreshToken.getUser();
+    }
+
+    @Transactional
+    public void revokeRefreshToken(String rawToken) {
+        refreshTokenRepository.findByTokenHashWithUser(hash(rawToken))
+                .ifPresent(refreshToken -> refreshToken.setRevoked(true));
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.purge-interval-ms:600000}")
+    @Transactional
+    public void purgeExpired() {
+        refreshTokenRepository.deleteExpired(Instant.now());
+    }
+
+    private String hash(String rawToken) {
+        try{
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest);
+        }catch(NoSuchAlgorithmException e){
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
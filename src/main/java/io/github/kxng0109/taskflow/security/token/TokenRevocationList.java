@@ -0,0 +1,82 @@
+package io.github.kxng0109.taskflow.security.token;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+//In-memory view of revoked access tokens, so the per-request check never touches the database.
+//The Bloom filter answers the common "never revoked" case, the exact map confirms its positives.
+//Only revocations that have not expired are kept, which access token lifetimes keep small.
+//Revocations made on another instance are only seen here after a restart.
+@Component
+public class TokenRevocationList {
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long expectedRevocations;
+    private final Map<String, Instant> revocations = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloomFilter;
+
+    public TokenRevocationList(
+            RevokedTokenRepository revokedTokenRepository,
+            @Value("${app.jwt.revocation.expected-revocations:100000}") long expectedRevocations
+    ) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedRevocations = expectedRevocations;
+        this.bloomFilter = new BloomFilter(expectedRevocations, FALSE_POSITIVE_RATE);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (!bloomFilter.mightContain(tokenId)) {
+            return false;
+        }
+        return revocations.containsKey(tokenId);
+    }
+
+    @Transactional
+    public void revoke(String tokenId, Instant expiresAt) {
+        if (revocations.containsKey(tokenId)) {
+            return;
+        }
+        revokedTokenRepository.save(new RevokedToken(tokenId, expiresAt));
+        revocations.put(tokenId, expiresAt);
+        bloomFilter.add(tokenId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRevocations() {
+        revokedTokenRepository.findByExpiresAtAfter(Instant.now())
+                .forEach(revokedToken -> revocations.put(revokedToken.getTokenId(), revokedToken.getExpiresAt()));
+        rebuildBloomFilter();
+        logger.info("Loaded {} active token revocations", revocations.size());
+    }
+
+    //A Bloom filter cannot forget values, so it is rebuilt from what is left once expired revocations are dropped
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.purge-interval-ms:600000}")
+    @Transactional
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        revocations.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+        rebuildBloomFilter();
+        revokedTokenRepository.deleteExpired(now);
+    }
+
+    private void rebuildBloomFilter() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, revocations.size()), FALSE_POSITIVE_RATE);
+        revocations.keySet().forEach(rebuilt::add);
+        bloomFilter = rebuilt;
+        //Catches revocations that landed in the old filter while the new one was being filled
+        revocations.keySet().forEach(rebuilt::add);
+    }
+}
@@ -4,9 +4,18 @@ import io.github.kxng0109.taskflow.project.Project;
 import io.github.kxng0109.taskflow.user.User;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
-@Table(name = "tasks")
+//Each index leads with project_id and ends with id, matching the keyset queries in TaskRepository
+@Table(
+        name = "tasks",
+        indexes = {
+                @Index(name = "idx_tasks_project_id", columnList = "project_id, id"),
+                @Index(name = "idx_tasks_project_status_id", columnList = "project_id, status, id"),
+                @Index(name = "idx_tasks_project_assignee_id", columnList = "project_id, assignee_id, id")
+        }
+)
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
@@ -35,4 +44,10 @@ public class Task {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "assignee_id")
     private User assignee;
+
+    //Same optimistic lock and ETag scheme as Project
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Long version;
 }
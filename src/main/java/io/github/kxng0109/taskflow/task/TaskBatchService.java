@@ -0,0 +1,145 @@
+package io.github.kxng0109.taskflow.task;
+
+import io.github.kxng0109.taskflow.project.ProjectMembershipAuthorizer;
+import io.github.kxng0109.taskflow.project.ProjectRepository;
+import io.github.kxng0109.taskflow.security.AuthenticatedUser;
+import io.github.kxng0109.taskflow.task.dto.TaskBatchRequest;
+import io.github.kxng0109.taskflow.task.dto.TaskRequest;
+import io.github.kxng0109.taskflow.task.dto.TaskStatusTransitionRequest;
+import io.github.kxng0109.taskflow.user.UserRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.*;
+
+//Creates many tasks of one project at once: membership is checked once, every assignee is validated with a single
+//query and the rows go in as one JDBC batch that returns their generated ids. All tasks are created or none are.
+//Status transitions of many tasks are likewise one UPDATE followed by one recount of the project's counters.
+@Service
+public class TaskBatchService {
+    private static final String INSERT_TASK_SQL =
+            "insert into tasks (title, description, status, project_id, assignee_id, version) values (?, ?, ?, ?, ?, 0)";
+
+    private final ProjectRepository projectRepository;
+    private final UserRepository userRepository;
+    private final ProjectMembershipAuthorizer membershipAuthorizer;
+    private final TaskRepository taskRepository;
+    private final TaskStatsService taskStatsService;
+    private final JdbcTemplate jdbcTemplate;
+
+    public TaskBatchService(
+            ProjectRepository projectRepository,
+            UserRepository userRepository,
+            ProjectMembershipAuthorizer membershipAuthorizer,
+            TaskRepository taskRepository,
+            TaskStatsService taskStatsService,
+            JdbcTemplate jdbcTemplate
+    ) {
+        this.projectRepository = projectRepository;
+        this.taskRepository = taskRepository;
+        this.userRepository = userRepository;
+        this.membershipAuthorizer = membershipAuthorizer;
+        this.taskStatsService = taskStatsService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional
+    public List<Long> createTasksInProject(Long projectId, TaskBatchRequest request, AuthenticatedUser currentUser) {
+        membershipAuthorizer.requireConfirmedMember(projectId, currentUser.id(), "You are not a member of this task's project");
+        List<TaskRequest> tasks = request.tasks();
+        verifyAssignees(projectId, tasks);
+
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_TASK_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        TaskRequest task = tasks.get(i);
+                        ps.setString(1, task.title());
+                        ps.setString(2, task.description());
+                        ps.setString(3, TaskStatus.valueOf(task.status()).name());
+                        ps.setLong(4, projectId);
+                        if (task.assigneeId() != null) {
+                            ps.setLong(5, task.assigneeId());
+                        } else {
+                            ps.setNull(5, Types.BIGINT);
+                        }
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return tasks.size();
+                    }
+                },
+                keyHolder
+        );
+
+        //Only the id column was asked for, so each key map holds exactly that value whatever its case
+        List<Long> createdIds = keyHolder.getKeyList().stream()
+                .map(keys -> ((Number) keys.values().iterator().next()).longValue())
+                .toList();
+        taskStatsService.recordCreated(projectId, countByBucket(tasks));
+        return createdIds;
+    }
+
+    @Transactional
+    public int transitionStatus(Long projectId, TaskStatusTransitionRequest request, AuthenticatedUser currentUser) {
+        membershipAuthorizer.requireConfirmedMember(projectId, currentUser.id(), "You are not a member of this task's project");
+        //Taken before the UPDATE so concurrent transitions of the same project queue up instead of racing the recount
+        projectRepository.findWithLockById(projectId);
+
+        List<Long> taskIds = request.taskIdsOrEmpty();
+        int updated = taskIds.isEmpty()
+                ? taskRepository.updateStatusByFilter(projectId, request.fromStatus(), request.assigneeId(), request.toStatus())
+                : taskRepository.updateStatusByIds(
+                        projectId, new HashSet<>(taskIds), request.fromStatus(), request.assigneeId(), request.toStatus()
+                );
+
+        if (updated > 0) {
+            taskStatsService.recountProject(projectId);
+        }
+        return updated;
+    }
+
+    //The same checks as a single create, answered for every assignee with one query instead of one per task
+    private void verifyAssignees(Long projectId, List<TaskRequest> tasks) {
+        Set<Long> assigneeIds = new HashSet<>();
+        tasks.stream().map(TaskRequest::assigneeId).filter(Objects::nonNull).forEach(assigneeIds::add);
+        if (assigneeIds.isEmpty()) {
+            return;
+        }
+
+        assigneeIds.removeAll(projectRepository.findMemberIdsAmong(projectId, assigneeIds));
+        if (assigneeIds.isEmpty()) {
+            return;
+        }
+        Long assigneeId = assigneeIds.iterator().next();
+        if (!userRepository.existsById(assigneeId)) {
+            throw new EntityNotFoundException("User with id " + assigneeId + " not found");
+        }
+        throw new AccessDeniedException("Cannot assign task to a user who is not a member of this project");
+    }
+
+    private List<TaskCountRow> countByBucket(List<TaskRequest> tasks) {
+        Map<TaskStatus, Map<Long, Long>> counts = new EnumMap<>(TaskStatus.class);
+        for (TaskRequest task : tasks) {
+            counts.computeIfAbsent(TaskStatus.valueOf(task.status()), status -> new HashMap<>())
+                    .merge(task.assigneeId(), 1L, Long::sum);
+        }
+
+        List<TaskCountRow> rows = new ArrayList<>();
+        counts.forEach((status, byAssignee) -> byAssignee.forEach(
+                (assigneeId, count) -> rows.add(new TaskCountRow(status, assigneeId, count))
+        ));
+        return rows;
+    }
+}
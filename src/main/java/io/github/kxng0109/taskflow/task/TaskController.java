@@ -1,55 +1,119 @@
 package io.github.kxng0109.taskflow.task;
 
+import io.github.kxng0109.taskflow.common.EntityTags;
+import io.github.kxng0109.taskflow.common.dto.CursorPage;
 import io.github.kxng0109.taskflow.project.dto.UserSummaryResponse;
+import io.github.kxng0109.taskflow.security.AuthenticatedUser;
+import io.github.kxng0109.taskflow.task.dto.ProjectStatsResponse;
+import io.github.kxng0109.taskflow.task.dto.TaskBatchRequest;
+import io.github.kxng0109.taskflow.task.dto.TaskBatchResponse;
 import io.github.kxng0109.taskflow.task.dto.TaskRequest;
 import io.github.kxng0109.taskflow.task.dto.TaskResponse;
-import io.github.kxng0109.taskflow.user.User;
+import io.github.kxng0109.taskflow.task.dto.TaskStatusTransitionRequest;
+import io.github.kxng0109.taskflow.task.dto.TaskStatusTransitionResponse;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/projects/{projectId}")
 public class TaskController {
+
     private final TaskService taskService;
+    private final TaskStatsService taskStatsService;
+    private final TaskExportService taskExportService;
+    private final TaskBatchService taskBatchService;
 
-    public  TaskController(TaskService taskService) {
+    public  TaskController(
+            TaskService taskService,
+            TaskStatsService taskStatsService,
+            TaskExportService taskExportService,
+            TaskBatchService taskBatchService
+    ) {
         this.taskService = taskService;
+        this.taskStatsService = taskStatsService;
+        this.taskExportService = taskExportService;
+        this.taskBatchService = taskBatchService;
     }
 
     @PostMapping("/tasks")
     public ResponseEntity<TaskResponse> createTaskInProject(
             @Valid @RequestBody TaskRequest taskRequest,
             @PathVariable Long projectId,
-            @AuthenticationPrincipal User currentUser
+            @AuthenticationPrincipal AuthenticatedUser currentUser
     ){
         Task newTask = taskService.createTaskInProject(projectId, taskRequest, currentUser);
-        return new ResponseEntity<>(convertTaskToTaskResponse(newTask), HttpStatus.CREATED);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .eTag(EntityTags.of(newTask.getVersion()))
+                .body(convertTaskToTaskResponse(newTask));
+    }
+
+    @PostMapping("/tasks:batch")
+    public ResponseEntity<TaskBatchResponse> createTasksInProject(
+            @Valid @RequestBody TaskBatchRequest taskBatchRequest,
+            @PathVariable Long projectId,
+            @AuthenticationPrincipal AuthenticatedUser currentUser
+    ){
+        List<Long> createdIds = taskBatchService.createTasksInProject(projectId, taskBatchRequest, currentUser);
+        return new ResponseEntity<>(new TaskBatchResponse(createdIds), HttpStatus.CREATED);
+    }
+
+    //Ids of tasks in other projects are ignored, the update only ever touches this project's rows
+    @PostMapping("/tasks:transition")
+    public ResponseEntity<TaskStatusTransitionResponse> transitionTaskStatus(
+            @Valid @RequestBody TaskStatusTransitionRequest transitionRequest,
+            @PathVariable Long projectId,
+            @AuthenticationPrincipal AuthenticatedUser currentUser
+    ){
+        int updated = taskBatchService.transitionStatus(projectId, transitionRequest, currentUser);
+        return ResponseEntity.ok(new TaskStatusTransitionResponse(updated));
     }
 
     @GetMapping("/tasks")
-    public ResponseEntity<List<TaskResponse>> getTasksForProject(
+    public ResponseEntity<CursorPage<TaskResponse>> getTasksForProject(
             @PathVariable Long projectId,
-            @AuthenticationPrincipal User currentUser
+            @RequestParam(required = false) TaskStatus status,
+            @RequestParam(required = false) Long assigneeId,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor,
+            @AuthenticationPrincipal AuthenticatedUser currentUser
     ){
-        List<Task> tasks = taskService.getTasksForProject(projectId, currentUser);
-        List<TaskResponse> taskResponses = tasks.stream()
-                .map(this::convertTaskToTaskResponse).toList();
-        return ResponseEntity.ok(taskResponses);
+        CursorPage<TaskRow> tasks = taskService.getTasksForProject(projectId, status, assigneeId, limit, cursor, currentUser);
+        List<TaskResponse> taskResponses = tasks.items().stream()
+                .map(TaskRow::toResponse).toList();
+        return ResponseEntity.ok(new CursorPage<>(taskResponses, tasks.nextCursor()));
+    }
+
+    //Every task of the project, one JSON object per line, for clients sending Accept: application/x-ndjson.
+    //A 403 or 404 is still answered with a JSON ErrorResponse, see GlobalExceptionHandler.
+    @GetMapping(value = "/tasks", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTasksForProject(
+            @PathVariable Long projectId,
+            @AuthenticationPrincipal AuthenticatedUser currentUser
+    ){
+        StreamingResponseBody body = taskExportService.streamTasksForProject(
+                projectId, currentUser, this::convertTaskToTaskResponse
+        );
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @GetMapping("/tasks/{taskId}")
     public ResponseEntity<TaskResponse> getTaskById(
             @PathVariable Long projectId,
             @PathVariable Long taskId,
-            @AuthenticationPrincipal User currentUser
+            @AuthenticationPrincipal AuthenticatedUser currentUser
     ){
-        Task task = taskService.getTaskById(projectId, taskId, currentUser);
-        return ResponseEntity.ok(convertTaskToTaskResponse(task));
+        TaskRow task = taskService.getTaskById(projectId, taskId, currentUser);
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of(task.version()))
+                .body(task.toResponse());
     }
 
     @PutMapping("/tasks/{taskId}")
@@ -57,22 +121,36 @@ public class TaskController {
             @PathVariable Long projectId,
             @PathVariable Long taskId,
             @Valid @RequestBody TaskRequest taskRequest,
-            @AuthenticationPrincipal User currentUser
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @AuthenticationPrincipal AuthenticatedUser currentUser
     ){
-        Task updatedTask = taskService.updateTaskInProject(projectId, taskId, taskRequest, currentUser);
-        return ResponseEntity.ok(convertTaskToTaskResponse(updatedTask));
+        Task updatedTask = taskService.updateTaskInProject(
+                projectId, taskId, taskRequest, EntityTags.parseIfMatch(ifMatch), currentUser
+        );
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of(updatedTask.getVersion()))
+                .body(convertTaskToTaskResponse(updatedTask));
     }
 
     @DeleteMapping("/tasks/{taskId}")
     public ResponseEntity<Void> deleteTaskInProject(
             @PathVariable Long projectId,
             @PathVariable Long taskId,
-            @AuthenticationPrincipal User currentUser
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @AuthenticationPrincipal AuthenticatedUser currentUser
     ){
-        taskService.deleteTaskInProject(projectId, taskId, currentUser);
+        taskService.deleteTaskInProject(projectId, taskId, EntityTags.parseIfMatch(ifMatch), currentUser);
         return ResponseEntity.noContent().build();
     }
 
+    @GetMapping("/stats")
+    public ResponseEntity<ProjectStatsResponse> getProjectStats(
+            @PathVariable Long projectId,
+            @AuthenticationPrincipal AuthenticatedUser currentUser
+    ){
+        return ResponseEntity.ok(taskStatsService.getProjectStats(projectId, currentUser));
+    }
+
     private TaskResponse convertTaskToTaskResponse(Task task){
         UserSummaryResponse assigneeSummary = null;
         if(task.getAssignee() != null){
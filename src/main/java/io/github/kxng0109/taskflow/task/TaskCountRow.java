@@ -0,0 +1,9 @@
+package io.github.kxng0109.taskflow.task;
+
+//One (status, assignee) bucket of a project's tasks, read from the counters or aggregated from the tasks themselves.
+//A null assignee id stands for unassigned tasks.
+public record TaskCountRow(
+        TaskStatus status,
+        Long assigneeId,
+        Long taskCount
+) {}
@@ -0,0 +1,20 @@
+package io.github.kxng0109.taskflow.task;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+//Number of tasks of a project in one (status, assignee) bucket, kept up to date by TaskStatsService as tasks change.
+//The primary key starts with the project id, so reading all counters of a project is a single index range scan.
+@Entity
+@Table(name = "task_counters")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class TaskCounter {
+    @EmbeddedId
+    private TaskCounterId id;
+
+    @Column(name = "task_count", nullable = false)
+    private long taskCount;
+}
@@ -0,0 +1,27 @@
+package io.github.kxng0109.taskflow.task;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.*;
+
+import java.io.Serializable;
+
+@Embeddable
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@EqualsAndHashCode
+public class TaskCounterId implements Serializable {
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private TaskStatus status;
+
+    //0 stands for unassigned tasks, a null column could not be part of the primary key
+    @Column(name = "assignee_key", nullable = false)
+    private Long assigneeKey;
+}
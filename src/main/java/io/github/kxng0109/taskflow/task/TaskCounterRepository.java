@@ -0,0 +1,69 @@
+package io.github.kxng0109.taskflow.task;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TaskCounterRepository extends JpaRepository<TaskCounter, TaskCounterId> {
+
+    //An in-place increment, concurrent writers queue on the row lock instead of overwriting each other's counts
+    @Modifying
+    @Query("""
+            update TaskCounter c set c.taskCount = c.taskCount + :delta
+            where c.id.projectId = :projectId and c.id.status = :status and c.id.assigneeKey = :assigneeKey
+            """)
+    int addToCount(
+            @Param("projectId") Long projectId,
+            @Param("status") TaskStatus status,
+            @Param("assigneeKey") Long assigneeKey,
+            @Param("delta") long delta
+    );
+
+    //Native writes name the table they touch, otherwise Hibernate drops every second-level cache region after them
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "task_counters"))
+    @Query(value = """
+            insert into task_counters (project_id, status, assignee_key, task_count)
+            values (:projectId, :status, :assigneeKey, :taskCount)
+            """, nativeQuery = true)
+    void insertCounter(
+            @Param("projectId") Long projectId,
+            @Param("status") String status,
+            @Param("assigneeKey") Long assigneeKey,
+            @Param("taskCount") long taskCount
+    );
+
+    boolean existsByIdProjectId(Long projectId);
+
+    @Query("""
+            select new io.github.kxng0109.taskflow.task.TaskCountRow(
+                c.id.status, nullif(c.id.assigneeKey, 0), c.taskCount)
+            from TaskCounter c
+            where c.id.projectId = :projectId
+            """)
+    List<TaskCountRow> findCountsByProjectId(@Param("projectId") Long projectId);
+
+    //Pending task changes are flushed first so the recount below sees them
+    @Modifying(flushAutomatically = true)
+    @Query("delete from TaskCounter c where c.id.projectId = :projectId")
+    int deleteByProjectId(@Param("projectId") Long projectId);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "task_counters"))
+    @Query(value = """
+            insert into task_counters (project_id, status, assignee_key, task_count)
+            select project_id, status, coalesce(assignee_id, 0), count(*)
+            from tasks
+            where project_id = :projectId
+            group by project_id, status, coalesce(assignee_id, 0)
+            """, nativeQuery = true)
+    int insertCountsFromTasks(@Param("projectId") Long projectId);
+}
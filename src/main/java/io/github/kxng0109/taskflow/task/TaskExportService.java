@@ -0,0 +1,79 @@
+package io.github.kxng0109.taskflow.task;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.github.kxng0109.taskflow.project.ProjectMembershipAuthorizer;
+import io.github.kxng0109.taskflow.security.AuthenticatedUser;
+import io.github.kxng0109.taskflow.task.dto.TaskResponse;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+//Writes every task of a project as newline-delimited JSON. Rows come from a forward-only cursor and each task is
+//serialized and detached before the next is read, so memory use does not grow with the size of the project.
+@Service
+public class TaskExportService {
+    private final TaskRepository taskRepository;
+    private final ProjectMembershipAuthorizer membershipAuthorizer;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter taskWriter;
+    private final TransactionTemplate transactionTemplate;
+
+    public TaskExportService(
+            TaskRepository taskRepository,
+            ProjectMembershipAuthorizer membershipAuthorizer,
+            EntityManager entityManager,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.taskRepository = taskRepository;
+        this.membershipAuthorizer = membershipAuthorizer;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        //The generator's buffer decides when bytes reach the client, not every single task
+        this.taskWriter = objectMapper.writerFor(TaskResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    //Membership is checked on the request thread, before streaming starts, so a 403 or 404 goes through
+    //GlobalExceptionHandler as a JSON error. The returned body runs afterwards on an async thread, in its own
+    //read-only transaction that keeps the cursor open.
+    public StreamingResponseBody streamTasksForProject(
+            Long projectId,
+            AuthenticatedUser currentUser,
+            Function<Task, TaskResponse> converter
+    ) {
+        membershipAuthorizer.requireMember(projectId, currentUser.id(), "You are not a member of this task's project");
+        return outputStream -> transactionTemplate.executeWithoutResult(
+                status -> writeTasks(projectId, converter, outputStream)
+        );
+    }
+
+    private void writeTasks(Long projectId, Function<Task, TaskResponse> converter, OutputStream outputStream) {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+             Stream<Task> tasks = taskRepository.streamByProjectId(projectId)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            for (Task task : (Iterable<Task>) tasks::iterator) {
+                taskWriter.writeValue(generator, converter.apply(task));
+                generator.writeRaw('\n');
+                entityManager.detach(task);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
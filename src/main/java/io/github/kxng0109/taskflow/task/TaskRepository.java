@@ -1,8 +1,141 @@
 package io.github.kxng0109.taskflow.task;
 
+import io.github.kxng0109.taskflow.user.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface TaskRepository extends JpaRepository<Task,Long> {
+    //Tasks are read as TaskRow, joined with their assignee, so a response costs one statement however many tasks
+    //and assignees it holds
+    String TASK_ROW = "select new io.github.kxng0109.taskflow.task.TaskRow("
+            + "t.id, t.title, t.description, t.status, t.project.id, a.id, a.name, t.version) "
+            + "from Task t left join t.assignee a ";
+
+    //Keyset pages of a project's tasks in id order, one query per filter combination so each can use its own index
+    //on tasks
+    String TASK_PAGE = TASK_ROW + "where t.project.id = :projectId and t.id > :afterId ";
+
+    @Query(TASK_ROW + "where t.id = :taskId")
+    Optional<TaskRow> findRowById(@Param("taskId") Long taskId);
+
+    @Query(TASK_PAGE + "order by t.id")
+    List<TaskRow> findPageByProjectId(
+            @Param("projectId") Long projectId,
+            @Param("afterId") long afterId,
+            Limit limit
+    );
+
+    @Query(TASK_PAGE + "and t.status = :status order by t.id")
+    List<TaskRow> findPageByProjectIdAndStatus(
+            @Param("projectId") Long projectId,
+            @Param("status") TaskStatus status,
+            @Param("afterId") long afterId,
+            Limit limit
+    );
+
+    @Query(TASK_PAGE + "and a.id = :assigneeId order by t.id")
+    List<TaskRow> findPageByProjectIdAndAssigneeId(
+            @Param("projectId") Long projectId,
+            @Param("assigneeId") Long assigneeId,
+            @Param("afterId") long afterId,
+            Limit limit
+    );
+
+    @Query(TASK_PAGE + "and t.status = :status and a.id = :assigneeId order by t.id")
+    List<TaskRow> findPageByProjectIdAndStatusAndAssigneeId(
+            @Param("projectId") Long projectId,
+            @Param("status") TaskStatus status,
+            @Param("assigneeId") Long assigneeId,
+            @Param("afterId") long afterId,
+            Limit limit
+    );
+
+    //For TaskExportService: rows are fetched from the open cursor 500 at a time instead of the whole result at once.
+    //Must be consumed inside a transaction and closed.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select t from Task t left join fetch t.assignee where t.project.id = :projectId order by t.id")
+    Stream<Task> streamByProjectId(@Param("projectId") Long projectId);
+
+    @Query("""
+            select new io.github.kxng0109.taskflow.task.TaskStateRow(t.project.id, t.status, a.id, t.version)
+            from Task t left join t.assignee a
+            where t.id = :taskId
+            """)
+    Optional<TaskStateRow> findStateById(@Param("taskId") Long taskId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Task t
+            set t.title = :title, t.description = :description, t.status = :status, t.assignee = :assignee,
+                t.version = t.version + 1
+            where t.id = :taskId and t.version = :version
+            """)
+    int updateIfVersion(
+            @Param("taskId") Long taskId,
+            @Param("version") Long version,
+            @Param("title") String title,
+            @Param("description") String description,
+            @Param("status") TaskStatus status,
+            @Param("assignee") User assignee
+    );
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Task t where t.id = :taskId and t.version = :version")
+    int deleteIfVersion(@Param("taskId") Long taskId, @Param("version") Long version);
+
+    //Bulk transitions for TaskBatchService. Tasks already in the target status are left alone, so their versions (and
+    //ETags) only change when the status really does. Null filters match every task.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Task t set t.status = :toStatus, t.version = t.version + 1
+            where t.project.id = :projectId and t.status <> :toStatus
+              and (:fromStatus is null or t.status = :fromStatus)
+              and (:assigneeId is null or t.assignee.id = :assigneeId)
+            """)
+    int updateStatusByFilter(
+            @Param("projectId") Long projectId,
+            @Param("fromStatus") TaskStatus fromStatus,
+            @Param("assigneeId") Long assigneeId,
+            @Param("toStatus") TaskStatus toStatus
+    );
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Task t set t.status = :toStatus, t.version = t.version + 1
+            where t.project.id = :projectId and t.id in :taskIds and t.status <> :toStatus
+              and (:fromStatus is null or t.status = :fromStatus)
+              and (:assigneeId is null or t.assignee.id = :assigneeId)
+            """)
+    int updateStatusByIds(
+            @Param("projectId") Long projectId,
+            @Param("taskIds") Collection<Long> taskIds,
+            @Param("fromStatus") TaskStatus fromStatus,
+            @Param("assigneeId") Long assigneeId,
+            @Param("toStatus") TaskStatus toStatus
+    );
+
+    //Source of truth for TaskCounter, used when a project has no counters yet and to check them for drift
+    @Query("""
+            select new io.github.kxng0109.taskflow.task.TaskCountRow(t.status, a.id, count(t))
+            from Task t left join t.assignee a
+            where t.project.id = :projectId
+            group by t.status, a.id
+            """)
+    List<TaskCountRow> aggregateCountsByProjectId(@Param("projectId") Long projectId);
 }
@@ -0,0 +1,21 @@
+package io.github.kxng0109.taskflow.task;
+
+import io.github.kxng0109.taskflow.project.dto.UserSummaryResponse;
+import io.github.kxng0109.taskflow.task.dto.TaskResponse;
+
+//A task as returned to clients, read with its assignee's name in the same row so no User entity is ever loaded
+public record TaskRow(
+        Long id,
+        String title,
+        String description,
+        TaskStatus status,
+        Long projectId,
+        Long assigneeId,
+        String assigneeName,
+        Long version
+) {
+    public TaskResponse toResponse() {
+        UserSummaryResponse assignee = assigneeId != null ? new UserSummaryResponse(assigneeId, assigneeName) : null;
+        return new TaskResponse(id, title, description, status.name(), projectId, assignee);
+    }
+}
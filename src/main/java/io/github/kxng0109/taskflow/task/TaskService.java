@@ -1,11 +1,17 @@
 package io.github.kxng0109.taskflow.task;
 
+import io.github.kxng0109.taskflow.common.KeysetCursor;
+import io.github.kxng0109.taskflow.common.dto.CursorPage;
+import io.github.kxng0109.taskflow.exception.PreconditionFailedException;
 import io.github.kxng0109.taskflow.project.Project;
+import io.github.kxng0109.taskflow.project.ProjectMembershipAuthorizer;
 import io.github.kxng0109.taskflow.project.ProjectRepository;
+import io.github.kxng0109.taskflow.security.AuthenticatedUser;
 import io.github.kxng0109.taskflow.task.dto.TaskRequest;
 import io.github.kxng0109.taskflow.user.User;
 import io.github.kxng0109.taskflow.user.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,30 +20,40 @@ import java.util.List;
 
 @Service
 public class TaskService {
+    public static final int MAX_PAGE_SIZE = 200;
+
     private final TaskRepository taskRepository;
     private final ProjectRepository projectRepository;
     private final UserRepository userRepository;
+    private final ProjectMembershipAuthorizer membershipAuthorizer;
+    private final TaskStatsService taskStatsService;
 
-    public TaskService(TaskRepository taskRepository, ProjectRepository projectRepository, UserRepository userRepository) {
+    public TaskService(
+            TaskRepository taskRepository,
+            ProjectRepository projectRepository,
+            UserRepository userRepository,
+            ProjectMembershipAuthorizer membershipAuthorizer,
+            TaskStatsService taskStatsService
+    ) {
         this.taskRepository = taskRepository;
         this.projectRepository = projectRepository;
         this.userRepository = userRepository;
+        this.membershipAuthorizer = membershipAuthorizer;
+        this.taskStatsService = taskStatsService;
     }
 
     @Transactional
-    public Task createTaskInProject(Long projectId, TaskRequest taskRequest, User currentUser) {
-        Project project = getProjectAndVerifyMembership(projectId, currentUser);
+    public Task createTaskInProject(Long projectId, TaskRequest taskRequest, AuthenticatedUser currentUser) {
+        verifyConfirmedMembership(projectId, currentUser);
 
         User assignee = null;
         if(taskRequest.assigneeId() != null){
-            assignee = userRepository.findById(taskRequest.assigneeId())
-                    .orElseThrow(()->new EntityNotFoundException("User with id " + taskRequest.assigneeId() + " not found"));
-
-            if(!project.getMembers().contains(assignee)) {
-                throw new AccessDeniedException("Cannot assign task to a user who is not a member of this project");
-            }
+            assignee = getAssignableUser(projectId, taskRequest.assigneeId());
         }
 
+        //Only the foreign key is needed, so the project row itself is never loaded
+        Project project = projectRepository.getReferenceById(projectId);
+
         Task taskToAdd = Task.builder()
                 .title(taskRequest.title())
                 .description(taskRequest.description())
@@ -46,62 +62,186 @@ public class TaskService {
                 .assignee(assignee)
                 .build();
 
-        return taskRepository.save(taskToAdd);
+        Task savedTask = taskRepository.save(taskToAdd);
+        taskStatsService.recordCreated(savedTask);
+        return savedTask;
     }
 
-    public List<Task> getTasksForProject(Long projectId, User curentUser) {
-        Project project = getProjectAndVerifyMembership(projectId, curentUser);
-        return project.getTasks();
+    //Keyset pagination on the task id with optional status and assignee filters, so opening a large board reads one
+    //bounded page at a time instead of every task in the project
+    @Transactional(readOnly = true)
+    public CursorPage<TaskRow> getTasksForProject(
+            Long projectId,
+            TaskStatus status,
+            Long assigneeId,
+            int limit,
+            String cursor,
+            AuthenticatedUser curentUser
+    ) {
+        verifyMembership(projectId, curentUser);
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        long afterId = cursor != null ? KeysetCursor.decode(cursor).id() : 0;
+
+        //One extra row tells whether there is a next page without a count query
+        Limit pageLimit = Limit.of(pageSize + 1);
+        List<TaskRow> tasks;
+        if (status != null && assigneeId != null) {
+            tasks = taskRepository.findPageByProjectIdAndStatusAndAssigneeId(projectId, status, assigneeId, afterId, pageLimit);
+        } else if (status != null) {
+            tasks = taskRepository.findPageByProjectIdAndStatus(projectId, status, afterId, pageLimit);
+        } else if (assigneeId != null) {
+            tasks = taskRepository.findPageByProjectIdAndAssigneeId(projectId, assigneeId, afterId, pageLimit);
+        } else {
+            tasks = taskRepository.findPageByProjectId(projectId, afterId, pageLimit);
+        }
+
+        if (tasks.size() <= pageSize) {
+            return new CursorPage<>(tasks, null);
+        }
+        tasks = tasks.subList(0, pageSize);
+        return new CursorPage<>(tasks, KeysetCursor.of(tasks.getLast().id()).encode());
     }
 
-    public Task getTaskById(Long projectId, Long taskId, User currentUser) {
-        return getTaskAndVerifyMembership(projectId, taskId, currentUser);
+    @Transactional(readOnly = true)
+    public TaskRow getTaskById(Long projectId, Long taskId, AuthenticatedUser currentUser) {
+        TaskRow task = taskRepository.findRowById(taskId)
+                .orElseThrow(() -> new EntityNotFoundException("Task with id " + taskId + " not found"));
+
+        if(!task.projectId().equals(projectId)){
+            throw new AccessDeniedException("This task does not belong to this project");
+        }
+        if(!membershipAuthorizer.isMember(projectId, currentUser.id())){
+            throw new AccessDeniedException("You are not a member of this task's project");
+        }
+
+        return task;
     }
 
+    //With an expected version (from If-Match) only the task's state row is read, a stale version fails with 412
+    //before anything else is loaded, and the write is one UPDATE guarded by that version
     @Transactional
-    public Task updateTaskInProject(Long projectId, Long taskId, TaskRequest taskUpdate, User currentUser) {
-        Task taskToUpdate = getTaskAndVerifyMembership(projectId, taskId, currentUser);
+    public Task updateTaskInProject(
+            Long projectId,
+            Long taskId,
+            TaskRequest taskUpdate,
+            Long expectedVersion,
+            AuthenticatedUser currentUser
+    ) {
+        if (expectedVersion != null) {
+            TaskStateRow state = getStateAndVerifyMembership(projectId, taskId, expectedVersion, currentUser);
+            User newAssignee = null;
+            if(taskUpdate.assigneeId() != null){
+                newAssignee = getAssignableUser(projectId, taskUpdate.assigneeId());
+            }
 
-        taskToUpdate.setTitle(taskUpdate.title());
-        taskToUpdate.setDescription(taskUpdate.description());
-        taskToUpdate.setStatus(TaskStatus.valueOf(taskUpdate.status()));
+            TaskStatus newStatus = TaskStatus.valueOf(taskUpdate.status());
+            int updated = taskRepository.updateIfVersion(
+                    taskId, expectedVersion, taskUpdate.title(), taskUpdate.description(), newStatus, newAssignee
+            );
+            requireConditionalWrite(taskId, updated);
 
-        if(taskUpdate.assigneeId() == null){
-            taskToUpdate.setAssignee(null);
-            return taskRepository.save(taskToUpdate);
+            Task updatedTask = Task.builder()
+                    .id(taskId)
+                    .title(taskUpdate.title())
+                    .description(taskUpdate.description())
+                    .status(newStatus)
+                    .project(projectRepository.getReferenceById(projectId))
+                    .assignee(newAssignee)
+                    .version(expectedVersion + 1)
+                    .build();
+            taskStatsService.recordMoved(updatedTask, state.status(), state.assigneeId());
+            return updatedTask;
         }
 
-        User newAssignee = userRepository.findById(taskUpdate.assigneeId())
-                .orElseThrow(
-                        ()-> new EntityNotFoundException("User with id " + taskUpdate.assigneeId() + " not found")
-                );
+        Task taskToUpdate = getTaskAndVerifyMembership(projectId, taskId, currentUser);
+        TaskStatus previousStatus = taskToUpdate.getStatus();
+        Long previousAssigneeId = taskToUpdate.getAssignee() != null ? taskToUpdate.getAssignee().getId() : null;
 
-        if(!taskToUpdate.getProject().getMembers().contains(newAssignee)) {
-            throw new AccessDeniedException("Cannot assign task to a user who is not a member of this project");
+        User newAssignee = null;
+        if(taskUpdate.assigneeId() != null){
+            newAssignee = getAssignableUser(projectId, taskUpdate.assigneeId());
         }
 
+        taskToUpdate.setTitle(taskUpdate.title());
+        taskToUpdate.setDescription(taskUpdate.description());
+        taskToUpdate.setStatus(TaskStatus.valueOf(taskUpdate.status()));
         taskToUpdate.setAssignee(newAssignee);
-        return taskRepository.save(taskToUpdate);
+
+        Task savedTask = taskRepository.save(taskToUpdate);
+        taskStatsService.recordMoved(savedTask, previousStatus, previousAssigneeId);
+        return savedTask;
     }
 
     @Transactional
-    public void deleteTaskInProject(Long projectId, Long taskId, User currentUser) {
+    public void deleteTaskInProject(Long projectId, Long taskId, Long expectedVersion, AuthenticatedUser currentUser) {
+        if (expectedVersion != null) {
+            TaskStateRow state = getStateAndVerifyMembership(projectId, taskId, expectedVersion, currentUser);
+            requireConditionalWrite(taskId, taskRepository.deleteIfVersion(taskId, expectedVersion));
+
+            //Counters only need the task's project, status and assignee
+            Task deletedTask = Task.builder()
+                    .id(taskId)
+                    .status(state.status())
+                    .project(projectRepository.getReferenceById(projectId))
+                    .assignee(state.assigneeId() != null ? userRepository.getReferenceById(state.assigneeId()) : null)
+                    .build();
+            taskStatsService.recordDeleted(deletedTask);
+            return;
+        }
+
         Task task = getTaskAndVerifyMembership(projectId, taskId, currentUser);
         taskRepository.delete(task);
+        taskStatsService.recordDeleted(task);
     }
 
-    private Project getProjectAndVerifyMembership(Long projectId, User currentUser) {
-        Project project = projectRepository.findById(projectId)
-                .orElseThrow(() -> new EntityNotFoundException("Project with id " + projectId + " not found"));
+    private void verifyMembership(Long projectId, AuthenticatedUser currentUser) {
+        membershipAuthorizer.requireMember(projectId, currentUser.id(), "You are not a member of this task's project");
+    }
 
-        if(!project.getMembers().contains(currentUser)){
-            throw new AccessDeniedException("You are not a member of this task's project");
+    private void verifyConfirmedMembership(Long projectId, AuthenticatedUser currentUser) {
+        membershipAuthorizer.requireConfirmedMember(projectId, currentUser.id(), "You are not a member of this task's project");
+    }
+
+    //The user is loaded for the response anyway, membership itself is one exists query
+    private User getAssignableUser(Long projectId, Long assigneeId) {
+        User assignee = userRepository.findById(assigneeId)
+                .orElseThrow(() -> new EntityNotFoundException("User with id " + assigneeId + " not found"));
+
+        if(!membershipAuthorizer.isConfirmedMember(projectId, assignee.getId())) {
+            throw new AccessDeniedException("Cannot assign task to a user who is not a member of this project");
         }
 
-        return project;
+        return assignee;
+    }
+
+    private TaskStateRow getStateAndVerifyMembership(
+            Long projectId,
+            Long taskId,
+            Long expectedVersion,
+            AuthenticatedUser currentUser
+    ) {
+        TaskStateRow state = taskRepository.findStateById(taskId)
+                .orElseThrow(() -> new EntityNotFoundException("Task with id " + taskId + " not found"));
+
+        if(!state.projectId().equals(projectId)){
+            throw new AccessDeniedException("This task does not belong to this project");
+        }
+        verifyConfirmedMembership(projectId, currentUser);
+
+        if(!state.version().equals(expectedVersion)){
+            throw new PreconditionFailedException("Task with id " + taskId + " has been modified, reload it and retry");
+        }
+        return state;
+    }
+
+    //The version matched when the state row was read, so no row means a concurrent write got there first
+    private void requireConditionalWrite(Long taskId, int updatedRows) {
+        if (updatedRows == 0) {
+            throw new PreconditionFailedException("Task with id " + taskId + " has been modified, reload it and retry");
+        }
     }
 
-    private Task getTaskAndVerifyMembership(Long projectId, Long taskId, User currentUser) {
+    private Task getTaskAndVerifyMembership(Long projectId, Long taskId, AuthenticatedUser currentUser) {
         Task task = taskRepository.findById(taskId)
                 .orElseThrow(() -> new EntityNotFoundException("Task with id " + taskId + " not found"));
 
@@ -111,7 +251,7 @@ public class TaskService {
         }
 
         //Then the usual to find out if the current user belongs to the project
-        if(!task.getProject().getMembers().contains(currentUser)){
+        if(!membershipAuthorizer.isConfirmedMember(projectId, currentUser.id())){
             throw new AccessDeniedException("You are not a member of this task's project");
         }
 
@@ -0,0 +1,9 @@
+package io.github.kxng0109.taskflow.task;
+
+//What a conditional write needs to know about a task: where it is counted, and the version to compare
+public record TaskStateRow(
+        Long projectId,
+        TaskStatus status,
+        Long assigneeId,
+        Long version
+) {}
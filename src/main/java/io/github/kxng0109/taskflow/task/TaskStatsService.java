@@ -0,0 +1,214 @@
+package io.github.kxng0109.taskflow.task;
+
+import io.github.kxng0109.taskflow.project.ProjectMembershipAuthorizer;
+import io.github.kxng0109.taskflow.project.ProjectRepository;
+import io.github.kxng0109.taskflow.project.dto.UserSummaryResponse;
+import io.github.kxng0109.taskflow.security.AuthenticatedUser;
+import io.github.kxng0109.taskflow.task.dto.AssigneeTaskCount;
+import io.github.kxng0109.taskflow.task.dto.ProjectStatsResponse;
+import io.github.kxng0109.taskflow.user.User;
+import io.github.kxng0109.taskflow.user.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+//Per-project task counts by status and assignee, served from task_counters instead of scanning the project's tasks.
+//TaskService reports every task change here inside its own transaction, so a counter commits or rolls back together
+//with the task it counts. Counters are changed with in-place increments; only a missing row takes the project row
+//lock, to create it, or to recount the whole project from the tasks when it has no counters yet.
+@Service
+public class TaskStatsService {
+    private static final int REPAIR_BATCH_SIZE = 500;
+    private static final long UNASSIGNED = 0L;
+
+    private final Logger logger = LoggerFactory.getLogger(TaskStatsService.class);
+
+    private final TaskCounterRepository taskCounterRepository;
+    private final TaskRepository taskRepository;
+    private final ProjectRepository projectRepository;
+    private final UserRepository userRepository;
+    private final ProjectMembershipAuthorizer membershipAuthorizer;
+    private final TransactionTemplate transactionTemplate;
+
+    public TaskStatsService(
+            TaskCounterRepository taskCounterRepository,
+            TaskRepository taskRepository,
+            ProjectRepository projectRepository,
+            UserRepository userRepository,
+            ProjectMembershipAuthorizer membershipAuthorizer,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.taskCounterRepository = taskCounterRepository;
+        this.taskRepository = taskRepository;
+        this.projectRepository = projectRepository;
+        this.userRepository = userRepository;
+        this.membershipAuthorizer = membershipAuthorizer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Transactional(readOnly = true)
+    public ProjectStatsResponse getProjectStats(Long projectId, AuthenticatedUser currentUser) {
+        membershipAuthorizer.requireMember(projectId, currentUser.id(), "You are not a member of this project");
+
+        List<TaskCountRow> counts = taskCounterRepository.findCountsByProjectId(projectId);
+        if (counts.isEmpty()) {
+            //No counters yet, e.g. tasks written before they existed, so one GROUP BY over the project's tasks instead
+            counts = taskRepository.aggregateCountsByProjectId(projectId);
+        }
+
+        Map<TaskStatus, Long> byStatus = new EnumMap<>(TaskStatus.class);
+        Arrays.stream(TaskStatus.values()).forEach(status -> byStatus.put(status, 0L));
+        Map<Long, Long> byAssigneeId = new HashMap<>();
+        long total = 0;
+        long unassigned = 0;
+        for (TaskCountRow count : counts) {
+            total += count.taskCount();
+            byStatus.merge(count.status(), count.taskCount(), Long::sum);
+            if (count.assigneeId() == null) {
+                unassigned += count.taskCount();
+            } else if (count.taskCount() > 0) {
+                byAssigneeId.merge(count.assigneeId(), count.taskCount(), Long::sum);
+            }
+        }
+
+        Map<Long, String> names = userRepository.findAllById(byAssigneeId.keySet()).stream()
+                .collect(Collectors.toMap(User::getId, User::getName));
+        List<AssigneeTaskCount> byAssignee = byAssigneeId.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .map(entry -> new AssigneeTaskCount(
+                        new UserSummaryResponse(entry.getKey(), names.get(entry.getKey())),
+                        entry.getValue()
+                ))
+                .toList();
+
+        return new ProjectStatsResponse(projectId, total, byStatus, unassigned, byAssignee);
+    }
+
+    @Transactional
+    public void recordCreated(Task task) {
+        adjust(task.getProject().getId(), task.getStatus(), assigneeKey(task), 1);
+    }
+
+    //Tasks inserted together, one adjustment per (status, assignee) bucket instead of one per task
+    @Transactional
+    public void recordCreated(Long projectId, List<TaskCountRow> counts) {
+        for (TaskCountRow count : counts) {
+            long assigneeKey = count.assigneeId() != null ? count.assigneeId() : UNASSIGNED;
+            //A recount already includes every inserted task, so nothing is left to add
+            if (!adjust(projectId, count.status(), assigneeKey, count.taskCount())) {
+                return;
+            }
+        }
+    }
+
+    @Transactional
+    public void recordDeleted(Task task) {
+        adjust(task.getProject().getId(), task.getStatus(), assigneeKey(task), -1);
+    }
+
+    //Called with the task already changed and the bucket it was counted in before
+    @Transactional
+    public void recordMoved(Task task, TaskStatus previousStatus, Long previousAssigneeId) {
+        long previousKey = previousAssigneeId != null ? previousAssigneeId : UNASSIGNED;
+        if (previousStatus == task.getStatus() && previousKey == assigneeKey(task)) {
+            return;
+        }
+        //A recount already places the task in its new bucket, the increment only follows a plain decrement
+        if (adjust(task.getProject().getId(), previousStatus, previousKey, -1)) {
+            adjust(task.getProject().getId(), task.getStatus(), assigneeKey(task), 1);
+        }
+    }
+
+    //For writes that move many tasks in one statement: counting afresh is one GROUP BY, where following each task
+    //would be one adjustment per moved bucket
+    @Transactional
+    public void recountProject(Long projectId) {
+        projectRepository.findWithLockById(projectId);
+        recount(projectId);
+    }
+
+    @Transactional
+    public void deleteCounters(Long projectId) {
+        taskCounterRepository.deleteByProjectId(projectId);
+    }
+
+    //Recounts every project whose counters disagree with its tasks, one short transaction per project. Drift should
+    //only come from writes that bypassed TaskService, this also fills in counters for projects that never had any.
+    @Scheduled(
+            initialDelayString = "${app.task-stats.repair-initial-delay-ms:300000}",
+            fixedDelayString = "${app.task-stats.repair-interval-ms:3600000}"
+    )
+    public void repairCounters() {
+        int repaired = 0;
+        long afterId = 0;
+        List<Long> projectIds;
+        do {
+            projectIds = projectRepository.findIdsAfter(afterId, Limit.of(REPAIR_BATCH_SIZE));
+            for (Long projectId : projectIds) {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> repairProject(projectId)))) {
+                    repaired++;
+                }
+            }
+            if (!projectIds.isEmpty()) {
+                afterId = projectIds.getLast();
+            }
+        } while (projectIds.size() == REPAIR_BATCH_SIZE);
+
+        if (repaired > 0) {
+            logger.warn("Recounted task counters of {} projects", repaired);
+        }
+    }
+
+    private boolean repairProject(Long projectId) {
+        if (projectRepository.findWithLockById(projectId).isEmpty()) {
+            return false;
+        }
+        Set<TaskCountRow> counted = taskCounterRepository.findCountsByProjectId(projectId).stream()
+                .filter(count -> count.taskCount() != 0)
+                .collect(Collectors.toSet());
+        if (counted.equals(new HashSet<>(taskRepository.aggregateCountsByProjectId(projectId)))) {
+            return false;
+        }
+        recount(projectId);
+        return true;
+    }
+
+    //Returns false when the project was recounted instead, which already reflects the current change
+    private boolean adjust(Long projectId, TaskStatus status, long assigneeKey, long delta) {
+        if (taskCounterRepository.addToCount(projectId, status, assigneeKey, delta) > 0) {
+            return true;
+        }
+
+        //The row may have been created while this transaction waited for the lock
+        projectRepository.findWithLockById(projectId);
+        if (taskCounterRepository.addToCount(projectId, status, assigneeKey, delta) > 0) {
+            return true;
+        }
+        if (delta > 0 && taskCounterRepository.existsByIdProjectId(projectId)) {
+            taskCounterRepository.insertCounter(projectId, status.name(), assigneeKey, delta);
+            return true;
+        }
+
+        //Either the project has no counters yet or a decrement found none to take from, both mean counting afresh
+        recount(projectId);
+        return false;
+    }
+
+    //Callers hold the project row lock
+    private void recount(Long projectId) {
+        taskCounterRepository.deleteByProjectId(projectId);
+        taskCounterRepository.insertCountsFromTasks(projectId);
+    }
+
+    private long assigneeKey(Task task) {
+        return task.getAssignee() != null ? task.getAssignee().getId() : UNASSIGNED;
+    }
+}
@@ -0,0 +1,9 @@
+package io.github.kxng0109.taskflow.task.dto;
+
+import io.github.kxng0109.taskflow.project.dto.UserSummaryResponse;
+
+public record AssigneeTaskCount(
+        UserSummaryResponse assignee,
+        long taskCount
+) {
+}
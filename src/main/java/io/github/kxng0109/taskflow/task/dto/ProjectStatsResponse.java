@@ -0,0 +1,15 @@
+package io.github.kxng0109.taskflow.task.dto;
+
+import io.github.kxng0109.taskflow.task.TaskStatus;
+
+import java.util.List;
+import java.util.Map;
+
+public record ProjectStatsResponse(
+        Long projectId,
+        long totalTasks,
+        Map<TaskStatus, Long> byStatus,
+        long unassignedTasks,
+        List<AssigneeTaskCount> byAssignee
+) {
+}
@@ -0,0 +1,15 @@
+package io.github.kxng0109.taskflow.task.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record TaskBatchRequest(
+        @NotEmpty(message = "Tasks cannot be empty")
+        @Size(max = 5000, message = "At most 5000 tasks per request")
+        List<@NotNull(message = "Task cannot be null") @Valid TaskRequest> tasks
+) {
+}
@@ -0,0 +1,9 @@
+package io.github.kxng0109.taskflow.task.dto;
+
+import java.util.List;
+
+//Ids of the created tasks, in the order the tasks were sent
+public record TaskBatchResponse(
+        List<Long> createdIds
+) {
+}
@@ -0,0 +1,31 @@
+package io.github.kxng0109.taskflow.task.dto;
+
+import io.github.kxng0109.taskflow.task.TaskStatus;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+//Selects the project's tasks by id, by current status and/or by assignee; every given criterion has to match
+public record TaskStatusTransitionRequest(
+        @Size(max = 5000, message = "At most 5000 task ids per request")
+        List<@NotNull(message = "Task id cannot be null") Long> taskIds,
+
+        TaskStatus fromStatus,
+
+        Long assigneeId,
+
+        @NotNull(message = "Target status cannot be null")
+        TaskStatus toStatus
+) {
+    public List<Long> taskIdsOrEmpty() {
+        return taskIds != null ? taskIds : List.of();
+    }
+
+    //Without any criterion the request would move every task of the project, which has to be asked for explicitly
+    @AssertTrue(message = "Give task ids, a current status or an assignee")
+    public boolean isTargeted() {
+        return !taskIdsOrEmpty().isEmpty() || fromStatus != null || assigneeId != null;
+    }
+}
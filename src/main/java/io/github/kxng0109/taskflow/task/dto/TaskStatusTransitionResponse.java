@@ -0,0 +1,6 @@
+package io.github.kxng0109.taskflow.task.dto;
+
+public record TaskStatusTransitionResponse(
+        int updatedTasks
+) {
+}
@@ -0,0 +1,6 @@
+package io.github.kxng0109.taskflow.user;
+
+public enum Role {
+    USER,
+    ADMIN,
+}
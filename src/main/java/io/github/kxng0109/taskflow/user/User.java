@@ -4,16 +4,21 @@ import io.github.kxng0109.taskflow.project.Project;
 import io.github.kxng0109.taskflow.task.Task;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 @Entity
 @Table(name = "users")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
@@ -34,6 +39,13 @@ public class User implements UserDetails {
     @Column(nullable = false)
     private String password;
 
+    //The column default lets the schema update add this column to an existing users table
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    @ColumnDefault("'USER'")
+    @Builder.Default
+    private Role role = Role.USER;
+
     @ManyToMany(mappedBy = "members")
     @Builder.Default
     private Set<Project> projects = new HashSet<>();
@@ -45,7 +57,7 @@ public class User implements UserDetails {
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return Collections.emptyList();
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
     }
 
     @Override
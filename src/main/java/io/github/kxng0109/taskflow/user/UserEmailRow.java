@@ -0,0 +1,7 @@
+package io.github.kxng0109.taskflow.user;
+
+//Just enough of a user to resolve a list of emails or ids without loading the entities
+public record UserEmailRow(
+        Long id,
+        String email
+) {}
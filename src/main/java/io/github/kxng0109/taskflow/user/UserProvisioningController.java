@@ -0,0 +1,37 @@
+package io.github.kxng0109.taskflow.user;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.kxng0109.taskflow.security.dto.RegistrationRequest;
+import io.github.kxng0109.taskflow.user.dto.ProvisioningReport;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/admin/users")
+public class UserProvisioningController {
+    private final UserProvisioningService userProvisioningService;
+    private final ObjectMapper objectMapper;
+
+    public UserProvisioningController(UserProvisioningService userProvisioningService, ObjectMapper objectMapper) {
+        this.userProvisioningService = userProvisioningService;
+        this.objectMapper = objectMapper;
+    }
+
+    //Accepts a JSON array or newline-delimited JSON. The body is read element by element, so the whole upload is
+    //never held in memory as request objects.
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ProvisioningReport> provisionUsers(HttpServletRequest request) throws IOException {
+        try (MappingIterator<RegistrationRequest> registrationRequests = objectMapper
+                .readerFor(RegistrationRequest.class)
+                .readValues(request.getInputStream())) {
+            return ResponseEntity.ok(userProvisioningService.provisionUsers(registrationRequests));
+        }
+    }
+}
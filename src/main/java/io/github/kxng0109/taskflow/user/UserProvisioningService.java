@@ -0,0 +1,187 @@
+package io.github.kxng0109.taskflow.user;
+
+import io.github.kxng0109.taskflow.common.SecondLevelCacheEvictor;
+import io.github.kxng0109.taskflow.security.dto.RegistrationRequest;
+import io.github.kxng0109.taskflow.security.password.BoundedPasswordEncoder;
+import io.github.kxng0109.taskflow.user.dto.ProvisioningReport;
+import io.github.kxng0109.taskflow.user.dto.ProvisioningResult;
+import io.github.kxng0109.taskflow.user.dto.ProvisioningStatus;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+//Creates users in chunks: each chunk is validated, checked for duplicates with one query, hashed in parallel on the
+//password hashing pool and written with a single JDBC batch. Every chunk commits on its own so a large import does
+//not hold one long transaction, and one bad row is reported instead of failing the rest.
+@Service
+public class UserProvisioningService {
+    private static final String INSERT_USER_SQL = "insert into users (name, email, password, role) values (?, ?, ?, ?)";
+
+    private final UserRepository userRepository;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final SecondLevelCacheEvictor cacheEvictor;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final int batchSize;
+
+    public UserProvisioningService(
+            UserRepository userRepository,
+            BoundedPasswordEncoder passwordEncoder,
+            SecondLevelCacheEvictor cacheEvictor,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            Validator validator,
+            @Value("${app.provisioning.batch-size:500}") int batchSize
+    ) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.cacheEvictor = cacheEvictor;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.batchSize = batchSize;
+    }
+
+    public ProvisioningReport provisionUsers(Iterator<RegistrationRequest> requests) {
+        List<ProvisioningResult> results = new ArrayList<>();
+        Set<String> seenEmails = new HashSet<>();
+        List<PendingUser> chunk = new ArrayList<>(batchSize);
+        int row = 0;
+
+        while (true) {
+            RegistrationRequest request;
+            try{
+                if (!requests.hasNext()) {
+                    break;
+                }
+                request = requests.next();
+            }catch(RuntimeException e){
+                //A malformed element leaves the parser in an unknown position, so nothing after it can be trusted
+                results.add(new ProvisioningResult(row, null, ProvisioningStatus.INVALID,
+                                                   "Unreadable input, the rest of the request was skipped"));
+                break;
+            }
+
+            chunk.add(new PendingUser(row++, request));
+            if (chunk.size() == batchSize) {
+                results.addAll(provisionChunk(chunk, seenEmails));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(provisionChunk(chunk, seenEmails));
+        }
+
+        Map<ProvisioningStatus, Long> counts = results.stream()
+                .collect(Collectors.groupingBy(ProvisioningResult::status, Collectors.counting()));
+        return new ProvisioningReport(
+                counts.getOrDefault(ProvisioningStatus.CREATED, 0L).intValue(),
+                counts.getOrDefault(ProvisioningStatus.DUPLICATE, 0L).intValue(),
+                counts.getOrDefault(ProvisioningStatus.INVALID, 0L).intValue(),
+                counts.getOrDefault(ProvisioningStatus.REJECTED, 0L).intValue(),
+                results
+        );
+    }
+
+    private List<ProvisioningResult> provisionChunk(List<PendingUser> chunk, Set<String> seenEmails) {
+        ProvisioningResult[] results = new ProvisioningResult[chunk.size()];
+        int firstRow = chunk.getFirst().row();
+        List<PendingUser> candidates = new ArrayList<>(chunk.size());
+
+        for (int i = 0; i < chunk.size(); i++) {
+            PendingUser pendingUser = chunk.get(i);
+            RegistrationRequest request = pendingUser.request();
+
+            Set<ConstraintViolation<RegistrationRequest>> violations = request == null
+                    ? Set.of()
+                    : validator.validate(request);
+            if (request == null || !violations.isEmpty()) {
+                String message = request == null
+                        ? "Row cannot be empty"
+                        : violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+                results[i] = result(pendingUser, ProvisioningStatus.INVALID, message);
+            } else if (!seenEmails.add(request.email())) {
+                results[i] = result(pendingUser, ProvisioningStatus.DUPLICATE, "Email appears earlier in the request.");
+            } else {
+                candidates.add(pendingUser);
+            }
+        }
+
+        if (!candidates.isEmpty()) {
+            Set<String> existingEmails = new HashSet<>(userRepository.findExistingEmails(
+                    candidates.stream().map(candidate -> candidate.request().email()).toList()));
+            candidates.removeIf(candidate -> {
+                if (existingEmails.contains(candidate.request().email())) {
+                    results[candidate.row() - firstRow] = result(candidate, ProvisioningStatus.DUPLICATE,
+                                                               "User with that email already exists.");
+                    return true;
+                }
+                return false;
+            });
+        }
+
+        if (!candidates.isEmpty()) {
+            List<String> hashedPasswords = passwordEncoder.encodeAll(
+                    candidates.stream().map(candidate -> candidate.request().password()).toList());
+            for (ProvisioningResult insertResult : insertUsers(candidates, hashedPasswords)) {
+                results[insertResult.row() - firstRow] = insertResult;
+            }
+            cacheEvictor.evictUserQueries();
+        }
+
+        return Arrays.asList(results);
+    }
+
+    private List<ProvisioningResult> insertUsers(List<PendingUser> candidates, List<String> hashedPasswords) {
+        List<Object[]> rows = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            RegistrationRequest request = candidates.get(i).request();
+            rows.add(new Object[]{request.name(), request.email(), hashedPasswords.get(i), Role.USER.name()});
+        }
+
+        List<ProvisioningResult> results = new ArrayList<>(candidates.size());
+        try{
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_USER_SQL, rows));
+            for (PendingUser candidate : candidates) {
+                results.add(created(candidate));
+            }
+        }catch(DataIntegrityViolationException e){
+            //Someone registered one of these emails after the duplicate check, or a row broke another constraint.
+            //Redo the chunk row by row to find it, only a unique key conflict on email is a duplicate
+            for (int i = 0; i < candidates.size(); i++) {
+                PendingUser candidate = candidates.get(i);
+                Object[] userRow = rows.get(i);
+                try{
+                    transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(INSERT_USER_SQL, userRow));
+                    results.add(created(candidate));
+                }catch(DuplicateKeyException rowException){
+                    results.add(result(candidate, ProvisioningStatus.DUPLICATE, "User with that email already exists."));
+                }catch(DataIntegrityViolationException rowException){
+                    results.add(result(candidate, ProvisioningStatus.REJECTED, "Row was rejected by a database constraint."));
+                }
+            }
+        }
+        return results;
+    }
+
+    private ProvisioningResult created(PendingUser pendingUser) {
+        return result(pendingUser, ProvisioningStatus.CREATED, null);
+    }
+
+    private ProvisioningResult result(PendingUser pendingUser, ProvisioningStatus status, String message) {
+        String email = pendingUser.request() != null ? pendingUser.request().email() : null;
+        return new ProvisioningResult(pendingUser.row(), email, status, message);
+    }
+
+    private record PendingUser(int row, RegistrationRequest request) {}
+}
@@ -1,11 +1,39 @@
 package io.github.kxng0109.taskflow.user;
 
+import io.github.kxng0109.taskflow.common.SecondLevelCacheEvictor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    //Cached by the l2cache profile; the result only holds the id, the user itself comes from the entity cache
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = SecondLevelCacheEvictor.USER_BY_EMAIL_REGION)
+    })
     Optional<User> findByEmail(String email);
+
+    @Query("""
+            select new io.github.kxng0109.taskflow.user.UserEmailRow(u.id, u.email)
+            from User u
+            where u.email in :emails or u.id in :ids
+            """)
+    List<UserEmailRow> findByEmailsOrIds(@Param("emails") Collection<String> emails, @Param("ids") Collection<Long> ids);
+
+    @Query("select u.email from User u where u.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Modifying
+    @Query("update User u set u.password = :password where u.email = :email")
+    int updatePasswordByEmail(@Param("email") String email, @Param("password") String password);
 }
@@ -1,6 +1,8 @@
 package io.github.kxng0109.taskflow.user;
 
 import io.github.kxng0109.taskflow.security.dto.RegistrationRequest;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,11 +23,6 @@ public class UserService {
         String userPassword = registrationRequest.password();
         String userName = registrationRequest.name();
 
-        boolean userExists = userRepository.findByEmail(userEmail).isPresent();
-        if (userExists) {
-            throw new IllegalStateException("User with that email already exists.");
-        }
-
         String hashedPassword = passwordEncoder.encode(userPassword);
 
         User newUser = User.builder()
@@ -34,6 +31,22 @@ public class UserService {
                 .name(userName)
                 .build();
 
-        return userRepository.save(newUser);
+        //A single insert, the unique index on users.email rejects duplicates even between concurrent sign-ups.
+        //Only a unique violation means a duplicate (email is the only unique column), any other integrity error propagates
+        User savedUser;
+        try{
+            savedUser = userRepository.saveAndFlush(newUser);
+        }catch(DataIntegrityViolationException e){
+            if(!isUniqueViolation(e)){
+                throw e;
+            }
+            throw new IllegalStateException("User with that email already exists.", e);
+        }
+        return savedUser;
+    }
+
+    private static boolean isUniqueViolation(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violation
+                && violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE;
     }
 }
@@ -0,0 +1,11 @@
+package io.github.kxng0109.taskflow.user.dto;
+
+import java.util.List;
+
+public record ProvisioningReport(
+        int created,
+        int duplicates,
+        int invalid,
+        int rejected,
+        List<ProvisioningResult> results
+) {}
@@ -0,0 +1,8 @@
+package io.github.kxng0109.taskflow.user.dto;
+
+public record ProvisioningResult(
+        int row,
+        String email,
+        ProvisioningStatus status,
+        String message
+) {}
@@ -0,0 +1,8 @@
+package io.github.kxng0109.taskflow.user.dto;
+
+public enum ProvisioningStatus {
+    CREATED,
+    DUPLICATE,
+    INVALID,
+    REJECTED,
+}
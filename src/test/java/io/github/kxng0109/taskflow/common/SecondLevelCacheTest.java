@@ -0,0 +1,125 @@
+package io.github.kxng0109.taskflow.common;
+
+import io.github.kxng0109.taskflow.project.Project;
+import io.github.kxng0109.taskflow.project.ProjectMembershipService;
+import io.github.kxng0109.taskflow.project.ProjectRepository;
+import io.github.kxng0109.taskflow.project.ProjectService;
+import io.github.kxng0109.taskflow.project.dto.AddMemberRequest;
+import io.github.kxng0109.taskflow.project.dto.BulkMemberRequest;
+import io.github.kxng0109.taskflow.project.dto.ProjectRequest;
+import io.github.kxng0109.taskflow.security.AuthenticatedUser;
+import io.github.kxng0109.taskflow.security.dto.RegistrationRequest;
+import io.github.kxng0109.taskflow.user.TestUsers;
+import io.github.kxng0109.taskflow.user.User;
+import io.github.kxng0109.taskflow.user.UserProvisioningService;
+import io.github.kxng0109.taskflow.user.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Not @Transactional: second-level cache entries are only updated when a transaction commits
+@SpringBootTest
+@ActiveProfiles({"test", "l2cache"})
+public class SecondLevelCacheTest {
+    @Autowired
+    private ProjectService projectService;
+    @Autowired
+    private ProjectMembershipService projectMembershipService;
+    @Autowired
+    private UserProvisioningService userProvisioningService;
+    @Autowired
+    private ProjectRepository projectRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TestUsers testUsers;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+    private final List<Long> createdProjectIds = new ArrayList<>();
+    private final List<String> createdEmails = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void cleanup() {
+        createdProjectIds.forEach(projectRepository::deleteById);
+        createdEmails.forEach(email -> userRepository.findByEmail(email).ifPresent(userRepository::delete));
+    }
+
+    @Test
+    void projectMembers_should_beServedFromCache_andIncludeMemberAddedThroughProjectService() {
+        User owner = saveUser("cacheOwner@email.com");
+        User newMember = saveUser("cacheMember@email.com");
+        Project project = projectService.createProject(new ProjectRequest("cached", null), AuthenticatedUser.from(owner));
+        createdProjectIds.add(project.getId());
+        assertEquals(1, memberCount(project.getId()));
+
+        statistics.clear();
+        assertEquals(1, memberCount(project.getId()));
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        projectService.addMemberToProject(project.getId(), new AddMemberRequest(newMember.getEmail()), AuthenticatedUser.from(owner));
+
+        assertEquals(2, memberCount(project.getId()));
+    }
+
+    @Test
+    void projectMembers_should_includeMembersAddedInBulk_whenCollectionWasCached() {
+        User owner = saveUser("bulkOwner@email.com");
+        User newMember = saveUser("bulkMember@email.com");
+        Project project = projectService.createProject(new ProjectRequest("bulkCached", null), AuthenticatedUser.from(owner));
+        createdProjectIds.add(project.getId());
+        assertEquals(1, memberCount(project.getId()));
+
+        projectMembershipService.addMembers(
+                project.getId(), new BulkMemberRequest(null, List.of(newMember.getId())), AuthenticatedUser.from(owner)
+        );
+
+        assertEquals(2, memberCount(project.getId()));
+    }
+
+    @Test
+    void findByEmail_should_findProvisionedUser_whenItsAbsenceWasCached() {
+        String email = "cacheProvisioned@email.com";
+        createdEmails.add(email);
+        assertTrue(userRepository.findByEmail(email).isEmpty());
+
+        statistics.clear();
+        assertTrue(userRepository.findByEmail(email).isEmpty());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        userProvisioningService.provisionUsers(List.of(new RegistrationRequest("provisioned", email, "testPassword")).iterator());
+
+        assertTrue(userRepository.findByEmail(email).isPresent());
+    }
+
+    private int memberCount(Long projectId) {
+        return transactionTemplate.execute(status -> projectRepository.findById(projectId).orElseThrow().getMembers().size());
+    }
+
+    private User saveUser(String email) {
+        createdEmails.add(email);
+        return testUsers.save(email);
+    }
+}
@@ -3,6 +3,7 @@ package io.github.kxng0109.taskflow.project;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jayway.jsonpath.JsonPath;
 import io.github.kxng0109.taskflow.project.dto.AddMemberRequest;
+import io.github.kxng0109.taskflow.project.dto.BulkMemberRequest;
 import io.github.kxng0109.taskflow.project.dto.ProjectRequest;
 import io.github.kxng0109.taskflow.security.dto.LoginRequest;
 import io.github.kxng0109.taskflow.user.User;
@@ -12,18 +13,26 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -117,9 +126,46 @@ public class ProjectControllerTest {
 
         mockMvc.perform(get(basePath).header("Authorization", "Bearer " + loginAndGetToken()))
                .andExpect(status().isOk())
-               .andExpect(jsonPath("$[0].name").value(project.getName()))
-               .andExpect(jsonPath("$[0].description").value(project.getDescription()))
-               .andExpect(jsonPath("$[0].members[*].name", hasItem(testUser.getName())));
+               .andExpect(jsonPath("$.items[0].name").value(project.getName()))
+               .andExpect(jsonPath("$.items[0].description").value(project.getDescription()))
+               .andExpect(jsonPath("$.items[0].taskCount").value(0))
+               .andExpect(jsonPath("$.items[0].members[*].name", hasItem(testUser.getName())))
+               .andExpect(jsonPath("$.items[0].members[0].password").doesNotExist());
+    }
+
+    @Test
+    void getProjectsForUser_should_pageThroughProjects_whenLimitIsSmallerThanTheirCount() throws Exception {
+        for (String name : List.of("alpha", "beta", "gamma")) {
+            Project project = Project.builder().name(name).description("description").build();
+            project.getMembers().add(testUser);
+            projectRepository.save(project);
+        }
+        String token = loginAndGetToken();
+
+        String firstPage = mockMvc.perform(get(basePath).param("limit", "2").header("Authorization", "Bearer " + token))
+                                  .andExpect(status().isOk())
+                                  .andExpect(jsonPath("$.items[*].name", contains("alpha", "beta")))
+                                  .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                                  .andReturn().getResponse().getContentAsString();
+        String nextCursor = JsonPath.parse(firstPage).read("$.nextCursor");
+
+        mockMvc.perform(get(basePath)
+                                .param("limit", "2")
+                                .param("cursor", nextCursor)
+                                .header("Authorization", "Bearer " + token))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.items[*].name", contains("gamma")))
+               .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        mockMvc.perform(get(basePath).param("namePrefix", "be").header("Authorization", "Bearer " + token))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.items[*].name", contains("beta")));
+    }
+
+    @Test
+    void getProjectsForUser_should_throw400BadRequest_whenCursorIsInvalid() throws Exception {
+        mockMvc.perform(get(basePath).param("cursor", "not a cursor!").header("Authorization", "Bearer " + loginAndGetToken()))
+               .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -220,6 +266,47 @@ public class ProjectControllerTest {
                .andExpect(status().isNotFound());
     }
 
+    @Test
+    void updateProject_should_return200OkAndNewETag_whenIfMatchIsCurrent() throws Exception {
+        Project project = setupProjectAndAddTestUser();
+        String token = loginAndGetToken();
+        String eTag = mockMvc.perform(get(basePath + "/{projectId}", project.getId())
+                                              .header("Authorization", "Bearer " + token))
+                             .andExpect(status().isOk())
+                             .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(put(basePath + "/{projectId}", project.getId())
+                                .header("Authorization", "Bearer " + token)
+                                .header(HttpHeaders.IF_MATCH, eTag)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new ProjectRequest("renamed", null))))
+               .andExpect(status().isOk())
+               .andExpect(header().string(HttpHeaders.ETAG, not(eTag)))
+               .andExpect(jsonPath("$.name").value("renamed"))
+               .andExpect(jsonPath("$.description").value(project.getDescription()))
+               .andExpect(jsonPath("$.members[*].name", hasItem(testUser.getName())));
+
+        //The tag that was just used is now stale
+        mockMvc.perform(put(basePath + "/{projectId}", project.getId())
+                                .header("Authorization", "Bearer " + token)
+                                .header(HttpHeaders.IF_MATCH, eTag)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new ProjectRequest("renamedAgain", null))))
+               .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void updateProject_should_throw412PreconditionFailed_whenIfMatchIsStale() throws Exception {
+        Project project = setupProjectAndAddTestUser();
+
+        mockMvc.perform(put(basePath + "/{projectId}", project.getId())
+                                .header("Authorization", "Bearer " + loginAndGetToken())
+                                .header(HttpHeaders.IF_MATCH, "\"99\"")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new ProjectRequest("renamed", null))))
+               .andExpect(status().isPreconditionFailed());
+    }
+
 
     @Test
     void deleteProject_should_return204NoContent_whenUserIsAuthenticated() throws Exception {
@@ -230,6 +317,20 @@ public class ProjectControllerTest {
                .andExpect(status().isNoContent());
     }
 
+    @Test
+    void getProjectById_should_throw404EntityNotFoundException_whenProjectWasDeleted() throws Exception {
+        Project project = setupProjectAndAddTestUser();
+        String token = loginAndGetToken();
+
+        mockMvc.perform(delete(basePath + "/{projectId}", project.getId())
+                                .header("Authorization", "Bearer " + token))
+               .andExpect(status().isNoContent());
+
+        mockMvc.perform(get(basePath + "/{projectId}", project.getId())
+                                .header("Authorization", "Bearer " + token))
+               .andExpect(status().isNotFound());
+    }
+
     @Test
     void deleteProject_should_throw401Unauthorized_whenUserIsNotAuthenticated() throws Exception {
         Project project = setupProject();
@@ -254,6 +355,21 @@ public class ProjectControllerTest {
                .andExpect(status().isNotFound());
     }
 
+    @Test
+    void deleteProject_should_throw412PreconditionFailed_whenIfMatchIsStale() throws Exception {
+        Project project = setupProjectAndAddTestUser();
+        String token = loginAndGetToken();
+
+        mockMvc.perform(delete(basePath + "/{projectId}", project.getId())
+                                .header("Authorization", "Bearer " + token)
+                                .header(HttpHeaders.IF_MATCH, "\"99\""))
+               .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get(basePath + "/{projectId}", project.getId())
+                                .header("Authorization", "Bearer " + token))
+               .andExpect(status().isOk());
+    }
+
 
     @Test
     void addMemberToProject_should_return200Ok_whenUserIsAuthenticated() throws Exception {
@@ -387,6 +503,100 @@ public class ProjectControllerTest {
     }
 
 
+    @Test
+    void addMembersToProject_should_return200OkAndReportEachEntry_whenUserIsAMemberOfProject() throws Exception {
+        Project project = setupProjectAndAddTestUser();
+        User first = saveUser("first@email.com");
+        User second = saveUser("second@email.com");
+        BulkMemberRequest request = new BulkMemberRequest(
+                List.of(first.getEmail(), testUser.getEmail(), "unknown@email.com", first.getEmail()),
+                List.of(second.getId(), 123456789L)
+        );
+
+        mockMvc.perform(post(basePath + "/{projectId}/members/bulk", project.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request))
+                                .header("Authorization", "Bearer " + loginAndGetToken()))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.changed").value(2))
+               .andExpect(jsonPath("$.unchanged").value(2))
+               .andExpect(jsonPath("$.notFound").value(2))
+               .andExpect(jsonPath("$.results[*].status").value(contains(
+                       "ADDED", "ALREADY_MEMBER", "NOT_FOUND", "DUPLICATE", "ADDED", "NOT_FOUND")))
+               .andExpect(jsonPath("$.results[4].email").value(second.getEmail()));
+
+        assertEquals(Set.of(testUser.getId(), first.getId(), second.getId()), memberIds(project, List.of(testUser.getId(), first.getId(), second.getId())));
+    }
+
+    @Test
+    void removeMembersFromProject_should_return200OkAndRemoveOnlyMembers_whenUserIsAMemberOfProject() throws Exception {
+        Project project = setupProjectAndAddTestUser();
+        User member = saveUser("member@email.com");
+        User outsider = saveUser("outsider@email.com");
+        project.getMembers().add(member);
+        projectRepository.save(project);
+        BulkMemberRequest request = new BulkMemberRequest(List.of(member.getEmail(), outsider.getEmail()), null);
+
+        mockMvc.perform(post(basePath + "/{projectId}/members/bulk-remove", project.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request))
+                                .header("Authorization", "Bearer " + loginAndGetToken()))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.changed").value(1))
+               .andExpect(jsonPath("$.results[*].status").value(containsInAnyOrder("REMOVED", "NOT_A_MEMBER")));
+
+        assertEquals(Set.of(testUser.getId()), memberIds(project, List.of(testUser.getId(), member.getId())));
+    }
+
+    @Test
+    void removeMembersFromProject_should_throw409Conflict_whenEveryMemberWouldBeRemoved() throws Exception {
+        Project project = setupProjectAndAddTestUser();
+        BulkMemberRequest request = new BulkMemberRequest(null, List.of(testUser.getId()));
+
+        mockMvc.perform(post(basePath + "/{projectId}/members/bulk-remove", project.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request))
+                                .header("Authorization", "Bearer " + loginAndGetToken()))
+               .andExpect(status().isConflict());
+    }
+
+    @Test
+    void addMembersToProject_should_throw403AccessDeniedException_whenUserIsNotAMemberOfProject() throws Exception {
+        Project project = setupProject();
+        BulkMemberRequest request = new BulkMemberRequest(List.of(testUser.getEmail()), null);
+
+        mockMvc.perform(post(basePath + "/{projectId}/members/bulk", project.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request))
+                                .header("Authorization", "Bearer " + loginAndGetToken()))
+               .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void addMembersToProject_should_throw400MethodArgumentNotValidException_whenAnEmailIsInvalid() throws Exception {
+        Project project = setupProjectAndAddTestUser();
+        BulkMemberRequest request = new BulkMemberRequest(List.of("not-an-email"), null);
+
+        mockMvc.perform(post(basePath + "/{projectId}/members/bulk", project.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request))
+                                .header("Authorization", "Bearer " + loginAndGetToken()))
+               .andExpect(status().isBadRequest());
+    }
+
+    private User saveUser(String email) {
+        return userRepository.save(User.builder()
+                                           .name("otherUser")
+                                           .password(passwordEncoder.encode("otherPassword"))
+                                           .email(email)
+                                           .build());
+    }
+
+    //Read back with a query, the join rows were written with JDBC behind the persistence context
+    private Set<Long> memberIds(Project project, Collection<Long> userIds) {
+        return new HashSet<>(projectRepository.findMemberIdsAmong(project.getId(), userIds));
+    }
+
     private Project setupProject() {
         Project project = Project.builder().name("projectName").members(new HashSet<>()).build();
         return projectRepository.save(project);
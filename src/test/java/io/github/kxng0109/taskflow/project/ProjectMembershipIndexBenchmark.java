@@ -0,0 +1,100 @@
+package io.github.kxng0109.taskflow.project;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures a membership check answered by {@link ProjectMembershipIndex} against a plain {@code Set<Long>} lookup,
+ * and prints the retained heap per user entry of a {@link ProjectIdSet} next to a {@code HashSet<Long>} holding the
+ * same ids. Run with: {@code ./mvnw test-compile} and then the {@code main} method below from the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectMembershipIndexBenchmark {
+    private static final int FOOTPRINT_ENTRIES = 20_000;
+
+    @Param({"10", "200"})
+    private int projectsPerUser;
+
+    private ProjectMembershipIndex membershipIndex;
+    private Set<Long> boxedProjectIds;
+    private long memberProjectId;
+
+    @Setup
+    public void setup() {
+        List<Long> projectIds = LongStream.range(0, projectsPerUser).map(i -> i * 7 + 1).boxed().toList();
+        ProjectRepository projectRepository = mock(ProjectRepository.class);
+        when(projectRepository.findIdsByMemberId(anyLong())).thenReturn(projectIds);
+
+        membershipIndex = new ProjectMembershipIndex(
+                projectRepository, new SimpleMeterRegistry(), 64L * 1024 * 1024, Duration.ofHours(1)
+        );
+        boxedProjectIds = new HashSet<>(projectIds);
+        memberProjectId = projectIds.get(projectsPerUser / 2);
+        membershipIndex.isMember(1L, memberProjectId);
+
+        long projectIdSetBytes = retainedBytesPerEntry(i -> ProjectIdSet.of(projectIds));
+        long hashSetBytes = retainedBytesPerEntry(i -> new HashSet<>(projectIds.stream().map(Long::valueOf).toList()));
+        System.out.printf("%n%d projects per user: ProjectIdSet ~%d bytes/entry (estimate %d), HashSet<Long> ~%d bytes/entry%n",
+                          projectsPerUser, projectIdSetBytes, ProjectIdSet.of(projectIds).estimatedBytes(), hashSetBytes);
+    }
+
+    @Benchmark
+    public boolean indexHit() {
+        return membershipIndex.isMember(1L, memberProjectId);
+    }
+
+    @Benchmark
+    public boolean boxedSetHit() {
+        return boxedProjectIds.contains(memberProjectId);
+    }
+
+    //Heap still in use after a GC with FOOTPRINT_ENTRIES entries alive, divided by the number of entries
+    @SuppressWarnings("deprecation")
+    private static long retainedBytesPerEntry(IntFunction<Object> entryFactory) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long before = memory.getHeapMemoryUsage().getUsed();
+
+        List<Object> entries = new ArrayList<>(FOOTPRINT_ENTRIES);
+        for (int i = 0; i < FOOTPRINT_ENTRIES; i++) {
+            entries.add(entryFactory.apply(i));
+        }
+        System.gc();
+        long after = memory.getHeapMemoryUsage().getUsed();
+
+        long perEntry = (after - before) / entries.size();
+        entries.clear();
+        return perEntry;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ProjectMembershipIndexBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
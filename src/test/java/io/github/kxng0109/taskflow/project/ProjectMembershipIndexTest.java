@@ -0,0 +1,102 @@
+package io.github.kxng0109.taskflow.project;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProjectMembershipIndexTest {
+    @Mock
+    private ProjectRepository projectRepository;
+
+    private ProjectMembershipIndex membershipIndex;
+    private final Long userId = 1L;
+
+    @BeforeEach
+    public void setup() {
+        membershipIndex = new ProjectMembershipIndex(
+                projectRepository, new SimpleMeterRegistry(), 1024 * 1024, Duration.ofMinutes(10)
+        );
+    }
+
+    @Test
+    void isMember_should_loadProjectIdsOncePerUser() {
+        when(projectRepository.findIdsByMemberId(userId)).thenReturn(List.of(30L, 10L, 20L));
+
+        assertTrue(membershipIndex.isMember(userId, 10L));
+        assertTrue(membershipIndex.isMember(userId, 30L));
+        assertFalse(membershipIndex.isMember(userId, 15L));
+
+        verify(projectRepository, times(1)).findIdsByMemberId(userId);
+    }
+
+    @Test
+    void addMembership_should_updateLoadedUser_withoutReloading() {
+        when(projectRepository.findIdsByMemberId(userId)).thenReturn(List.of(10L));
+        assertFalse(membershipIndex.isMember(userId, 20L));
+
+        membershipIndex.addMembership(userId, 20L);
+
+        assertTrue(membershipIndex.isMember(userId, 20L));
+        verify(projectRepository, times(1)).findIdsByMemberId(userId);
+    }
+
+    @Test
+    void removeProject_should_dropProjectFromEveryLoadedMember() {
+        Long otherUserId = 2L;
+        when(projectRepository.findIdsByMemberId(userId)).thenReturn(List.of(10L, 20L));
+        when(projectRepository.findIdsByMemberId(otherUserId)).thenReturn(List.of(10L));
+        membershipIndex.isMember(userId, 10L);
+        membershipIndex.isMember(otherUserId, 10L);
+
+        membershipIndex.removeProject(10L, List.of(userId, otherUserId));
+
+        assertFalse(membershipIndex.isMember(userId, 10L));
+        assertTrue(membershipIndex.isMember(userId, 20L));
+        assertFalse(membershipIndex.isMember(otherUserId, 10L));
+    }
+
+    @Test
+    void isConfirmedMember_should_denyAndDropStaleEntry_whenMembershipWasRemovedElsewhere() {
+        ProjectMembershipAuthorizer membershipAuthorizer = new ProjectMembershipAuthorizer(projectRepository, membershipIndex);
+        when(projectRepository.findIdsByMemberId(userId)).thenReturn(List.of(10L), List.of());
+        assertTrue(membershipAuthorizer.isMember(10L, userId));
+
+        //Another instance removed the membership, only the database knows
+        when(projectRepository.existsByIdAndMembersId(10L, userId)).thenReturn(false);
+
+        assertFalse(membershipAuthorizer.isConfirmedMember(10L, userId));
+        assertFalse(membershipAuthorizer.isMember(10L, userId));
+        verify(projectRepository, times(2)).findIdsByMemberId(userId);
+    }
+
+    @Test
+    void isMember_should_neverQueryTheRepository_whenIndexIsDisabled() {
+        ProjectMembershipIndex disabledIndex = new ProjectMembershipIndex(
+                projectRepository, new SimpleMeterRegistry(), 0, Duration.ofMinutes(10)
+        );
+
+        assertFalse(disabledIndex.isMember(userId, 10L));
+        verifyNoInteractions(projectRepository);
+    }
+
+    @Test
+    void projectIdSet_should_keepIdsSortedThroughUpdates() {
+        ProjectIdSet projectIds = ProjectIdSet.of(List.of(5L, 1L, 3L)).with(4L).with(0L).without(3L).with(4L);
+
+        assertEquals(4, projectIds.size());
+        for (long projectId : new long[]{0L, 1L, 4L, 5L}) {
+            assertTrue(projectIds.contains(projectId));
+        }
+        assertFalse(projectIds.contains(3L));
+    }
+}
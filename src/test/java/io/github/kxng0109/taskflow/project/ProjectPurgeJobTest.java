@@ -0,0 +1,77 @@
+package io.github.kxng0109.taskflow.project;
+
+import io.github.kxng0109.taskflow.security.AuthenticatedUser;
+import io.github.kxng0109.taskflow.task.Task;
+import io.github.kxng0109.taskflow.task.TaskStatsService;
+import io.github.kxng0109.taskflow.task.TaskStatus;
+import io.github.kxng0109.taskflow.user.User;
+import io.github.kxng0109.taskflow.user.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "app.projects.purge-batch-size=3")
+@Transactional
+@ActiveProfiles("test")
+public class ProjectPurgeJobTest {
+    @Autowired
+    private ProjectPurgeJob projectPurgeJob;
+    @Autowired
+    private ProjectService projectService;
+    @Autowired
+    private TaskStatsService taskStatsService;
+    @Autowired
+    private ProjectRepository projectRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void purgeDeletedProjects_should_removeTasksCountersMembersAndProject_whenProjectWasDeleted() {
+        User owner = userRepository.save(User.builder()
+                                               .name("owner")
+                                               .email("purgeOwner@email.com")
+                                               .password("encodedPassword")
+                                               .build());
+        Project deleted = saveProjectWithTasks("deleted", owner, 10);
+        Project kept = saveProjectWithTasks("kept", owner, 2);
+        taskStatsService.repairCounters();
+
+        projectService.deleteProject(deleted.getId(), null, AuthenticatedUser.from(owner));
+        entityManager.flush();
+        entityManager.clear();
+
+        projectPurgeJob.purgeDeletedProjects();
+
+        assertEquals(0, count("select count(*) from tasks where project_id = ?", deleted.getId()));
+        assertEquals(0, count("select count(*) from task_counters where project_id = ?", deleted.getId()));
+        assertEquals(0, count("select count(*) from projects_members where projects_id = ?", deleted.getId()));
+        assertEquals(0, count("select count(*) from projects where id = ?", deleted.getId()));
+        assertEquals(2, count("select count(*) from tasks where project_id = ?", kept.getId()));
+    }
+
+    private Project saveProjectWithTasks(String name, User owner, int tasks) {
+        Project project = projectRepository.save(Project.builder().name(name).members(new HashSet<>(Set.of(owner))).build());
+        for (int i = 0; i < tasks; i++) {
+            project.addTask(Task.builder().title(name + i).status(TaskStatus.TO_DO).build());
+        }
+        entityManager.flush();
+        return project;
+    }
+
+    private long count(String sql, Long projectId) {
+        return jdbcTemplate.queryForObject(sql, Long.class, projectId);
+    }
+}
@@ -1,22 +1,33 @@
 package io.github.kxng0109.taskflow.project;
 
+import io.github.kxng0109.taskflow.common.KeysetCursor;
+import io.github.kxng0109.taskflow.common.SecondLevelCacheEvictor;
+import io.github.kxng0109.taskflow.common.dto.CursorPage;
+import io.github.kxng0109.taskflow.exception.InvalidCursorException;
+import io.github.kxng0109.taskflow.exception.PreconditionFailedException;
 import io.github.kxng0109.taskflow.project.dto.AddMemberRequest;
 import io.github.kxng0109.taskflow.project.dto.ProjectRequest;
+import io.github.kxng0109.taskflow.project.dto.ProjectSummaryResponse;
+import io.github.kxng0109.taskflow.project.dto.UserSummaryResponse;
+import io.github.kxng0109.taskflow.security.AuthenticatedUser;
 import io.github.kxng0109.taskflow.user.User;
 import io.github.kxng0109.taskflow.user.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.AccessDeniedException;
 
+import java.time.Duration;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -28,16 +39,28 @@ public class ProjectServiceTest {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
+    @Mock
+    private SecondLevelCacheEvictor cacheEvictor;
+
     private ProjectService projectService;
 
     private User testUserAMember;
     private User testUserNotAMember;
+    private AuthenticatedUser currentUserAMember;
+    private AuthenticatedUser currentUserNotAMember;
     private Set<User> testMembers;
     private final Long projectId = 100L;
 
     @BeforeEach
     public void setup() {
+        //A disabled index never touches the repository mock
+        ProjectMembershipIndex membershipIndex = new ProjectMembershipIndex(
+                projectRepository, new SimpleMeterRegistry(), 0, Duration.ofMinutes(10)
+        );
+        projectService = new ProjectService(
+                projectRepository, userRepository, membershipIndex,
+                new ProjectMembershipAuthorizer(projectRepository, membershipIndex), cacheEvictor
+        );
         testMembers = new HashSet<>();
 
         testUserAMember = User.builder()
@@ -53,16 +76,21 @@ public class ProjectServiceTest {
                 .build();
 
         testMembers.add(testUserAMember);
+
+        currentUserAMember = AuthenticatedUser.from(testUserAMember);
+        currentUserNotAMember = AuthenticatedUser.from(testUserNotAMember);
     }
 
     @Test
     void createProject_should_returnProject_whenUserIsAuthenticated(){
         ProjectRequest projectRequest = new ProjectRequest("projectName", "projectDescription");
 
+        when(userRepository.getReferenceById(testUserAMember.getId()))
+                .thenReturn(testUserAMember);
         when(projectRepository.save(any(Project.class)))
                 .thenAnswer(i -> i.getArgument(0));
 
-        Project result = projectService.createProject(projectRequest, testUserAMember);
+        Project result = projectService.createProject(projectRequest, currentUserAMember);
 
         assertNotNull(result);
         assertEquals(result.getName(), projectRequest.name());
@@ -77,76 +105,116 @@ public class ProjectServiceTest {
     void getProjectById_should_returnProject_whenUserIsAMemberOfTheProject(){
         Project existingProject = Project.builder().id(projectId).members(testMembers).build();
 
-        when(projectRepository.findById(projectId))
+        when(projectRepository.findWithMembersById(projectId))
                 .thenReturn(Optional.of(existingProject));
 
-        Project result = projectService.getProjectById(projectId, testUserAMember);
+        Project result = projectService.getProjectById(projectId, currentUserAMember);
 
         assertNotNull(result);
         assertEquals(existingProject.getId(), result.getId());
         assertTrue(result.getMembers().contains(testUserAMember));
 
-        verify(projectRepository).findById(projectId);
+        verify(projectRepository).findWithMembersById(projectId);
     }
 
     @Test
     void getProjectById_should_throwAccessDeniedException_whenUserIsNotAMemberOfTheProject(){
         Project existingProject = Project.builder().id(projectId).members(testMembers).build();
-        when(projectRepository.findById(projectId))
+        when(projectRepository.findWithMembersById(projectId))
                 .thenReturn(Optional.of(existingProject));
 
         AccessDeniedException thrownException = assertThrows(
                 AccessDeniedException.class,
-                () -> projectService.getProjectById(projectId, testUserNotAMember)
+                () -> projectService.getProjectById(projectId, currentUserNotAMember)
         );
 
         assertEquals("You are not a member of this project", thrownException.getMessage());
 
-        verify(projectRepository).findById(projectId);
+        verify(projectRepository).findWithMembersById(projectId);
     }
 
     @Test
     void getProjectById_should_throwEntityNotFoundException_whenProjectIsNotFound(){
-        when(projectRepository.findById(projectId)).thenReturn(Optional.empty());
+        when(projectRepository.findWithMembersById(projectId))
+                .thenReturn(Optional.empty());
 
         EntityNotFoundException thrownException = assertThrows(
                 EntityNotFoundException.class,
-                () -> projectService.getProjectById(projectId, testUserAMember)
+                () -> projectService.getProjectById(projectId, currentUserAMember)
         );
 
         assertEquals("Project with id " + projectId + " not found", thrownException.getMessage());
-        verify(projectRepository).findById(projectId);
+        verify(projectRepository).findWithMembersById(projectId);
     }
 
     @Test
     void getProjectsForUser_should_returnProjects_whenUserIsAMemberOfProject(){
-        Project existingProject = Project.builder().id(projectId).members(testMembers).build();
-        List<Project> projects = new ArrayList<>();
-        projects.add(existingProject);
+        ProjectSummaryRow projectRow = new ProjectSummaryRow(projectId, "testProject", "testDescription", 3L);
+        ProjectMemberRow memberRow = new ProjectMemberRow(projectId, testUserAMember.getId(), testUserAMember.getName());
+
+        when(projectRepository.findSummariesByMemberId(testUserAMember.getId(), "%", "", 0L, Limit.of(51)))
+                .thenReturn(List.of(projectRow));
+        when(projectRepository.findMembersByProjectIds(List.of(projectId)))
+                .thenReturn(List.of(memberRow));
+
+        CursorPage<ProjectSummaryResponse> result = projectService.getProjectsForUser(currentUserAMember, 50, null, null);
+
+        assertEquals(1, result.items().size());
+        assertNull(result.nextCursor());
+        assertEquals(projectRow.name(), result.items().getFirst().name());
+        assertEquals(3L, result.items().getFirst().taskCount());
+        assertEquals(
+                List.of(new UserSummaryResponse(testUserAMember.getId(), testUserAMember.getName())),
+                result.items().getFirst().members()
+        );
+        verify(projectRepository).findMembersByProjectIds(List.of(projectId));
+    }
 
-        when(projectRepository.findByMembersContaining(testUserAMember))
-                .thenReturn(projects);
+    @Test
+    void getProjectsForUser_should_returnNoProject_whenUserIsNotAMemberOfAnyProject(){
+        when(projectRepository.findSummariesByMemberId(testUserNotAMember.getId(), "%", "", 0L, Limit.of(51)))
+                .thenReturn(new ArrayList<>());
 
-        List<Project> result = projectService.getProjectsForUser(testUserAMember);
+        CursorPage<ProjectSummaryResponse> result = projectService.getProjectsForUser(currentUserNotAMember, 50, null, null);
 
-        assertNotNull(result);
-        assertEquals(projects.size(), result.size());
-        assertTrue(result.containsAll(projects));
-        assertTrue(result.getFirst().getMembers().contains(testUserAMember));
+        assertTrue(result.items().isEmpty());
+        assertNull(result.nextCursor());
 
-        verify(projectRepository).findByMembersContaining(testUserAMember);
+        verify(projectRepository, never()).findMembersByProjectIds(any());
     }
 
     @Test
-    void getProjectsForUser_should_returnNoProject_whenUserIsNotAMemberOfAnyProject(){
-        when(projectRepository.findByMembersContaining(testUserNotAMember))
+    void getProjectsForUser_should_returnCursorOfLastRow_whenMoreRowsThanLimitExist(){
+        List<ProjectSummaryRow> rows = List.of(
+                new ProjectSummaryRow(1L, "alpha", null, 0L),
+                new ProjectSummaryRow(2L, "beta", null, 0L),
+                new ProjectSummaryRow(3L, "gamma", null, 0L)
+        );
+        when(projectRepository.findSummariesByMemberId(testUserAMember.getId(), "%", "", 0L, Limit.of(3)))
+                .thenReturn(rows);
+
+        CursorPage<ProjectSummaryResponse> result = projectService.getProjectsForUser(currentUserAMember, 2, null, null);
+
+        assertEquals(2, result.items().size());
+        assertEquals(KeysetCursor.of("beta", 2L).encode(), result.nextCursor());
+        verify(projectRepository).findMembersByProjectIds(List.of(1L, 2L));
+    }
+
+    @Test
+    void getProjectsForUser_should_seekPastCursorAndEscapePrefix(){
+        String cursor = KeysetCursor.of("beta", 2L).encode();
+        when(projectRepository.findSummariesByMemberId(testUserAMember.getId(), "50\\%%", "beta", 2L, Limit.of(51)))
                 .thenReturn(new ArrayList<>());
 
-        List<Project> result = projectService.getProjectsForUser(testUserNotAMember);
+        CursorPage<ProjectSummaryResponse> result = projectService.getProjectsForUser(currentUserAMember, 50, cursor, "50%");
 
-        assertTrue(result.isEmpty());
+        assertTrue(result.items().isEmpty());
+    }
 
-        verify(projectRepository).findByMembersContaining(testUserNotAMember);
+    @Test
+    void getProjectsForUser_should_throwInvalidCursorException_whenCursorIsNotOurs(){
+        assertThrows(InvalidCursorException.class,
+                     () -> projectService.getProjectsForUser(currentUserAMember, 50, "not a cursor!", null));
     }
 
 
@@ -161,15 +229,16 @@ public class ProjectServiceTest {
         
         ProjectRequest updatedProjectRequest = new ProjectRequest("newName", "newDescription");
 
-        when(projectRepository.findById(projectId))
+        when(projectRepository.findWithMembersById(projectId))
                 .thenReturn(Optional.of(existingProject));
         when(projectRepository.save(existingProject))
                 .thenAnswer(i -> i.getArgument(0));
 
         Project result = projectService.updateProject(
                 existingProject.getId(), 
-                updatedProjectRequest, 
-                testUserAMember
+                updatedProjectRequest,
+                null,
+                currentUserAMember
         );
 
         assertNotNull(result);
@@ -177,7 +246,7 @@ public class ProjectServiceTest {
         assertEquals(result.getDescription(), updatedProjectRequest.description());
         assertTrue(result.getMembers().contains(testUserAMember));
 
-        verify(projectRepository).findById(projectId);
+        verify(projectRepository).findWithMembersById(projectId);
         verify(projectRepository).save(existingProject);
     }
 
@@ -187,73 +256,103 @@ public class ProjectServiceTest {
                 .id(projectId)
                 .members(testMembers)
                 .build();
+        when(projectRepository.findWithMembersById(projectId))
+                .thenReturn(Optional.of(existingProject));
 
         ProjectRequest updatedProjectRequest = new ProjectRequest("newName", "newDescription");
 
-        when(projectRepository.findById(projectId))
-                .thenReturn(Optional.of(existingProject));
 
         AccessDeniedException thrownException = assertThrows(
                 AccessDeniedException.class,
                 () -> projectService.updateProject(
                         existingProject.getId(),
                         updatedProjectRequest,
-                        testUserNotAMember
+                        null,
+                        currentUserNotAMember
                 )
         );
 
         assertEquals("You are not a member of this project", thrownException.getMessage());
 
-        verify(projectRepository).findById(projectId);
+        verify(projectRepository).findWithMembersById(projectId);
     }
 
     @Test
     void updateProject_should_throwNotFoundException_whenProjectIsNotFound(){
         ProjectRequest updatedProjectRequest = new ProjectRequest("newName", "newDescription");
 
-        when(projectRepository.findById(projectId))
-                .thenReturn(Optional.empty());
-        EntityNotFoundException thrownError = assertThrows(EntityNotFoundException.class, () -> projectService.updateProject(projectId, updatedProjectRequest, testUserAMember));
+        EntityNotFoundException thrownError = assertThrows(EntityNotFoundException.class, () -> projectService.updateProject(projectId, updatedProjectRequest, null, currentUserAMember));
 
         assertEquals("Project with id " + projectId + " not found", thrownError.getMessage());
-        verify(projectRepository).findById(projectId);
+        verify(projectRepository).findWithMembersById(projectId);
     }
 
+    @Test
+    void updateProject_should_throwPreconditionFailedException_whenExpectedVersionIsStale(){
+        ProjectRequest updatedProjectRequest = new ProjectRequest("newName", "newDescription");
+        when(projectRepository.existsByIdAndMembersId(projectId, testUserAMember.getId())).thenReturn(true);
+        when(projectRepository.updateIfVersion(projectId, 3L, "newName", "newDescription")).thenReturn(0);
+        when(projectRepository.existsById(projectId)).thenReturn(true);
+
+        assertThrows(
+                PreconditionFailedException.class,
+                () -> projectService.updateProject(projectId, updatedProjectRequest, 3L, currentUserAMember)
+        );
+
+        verify(projectRepository, never()).findWithMembersById(projectId);
+    }
 
     @Test
-    void deleteProject_should_deleteProject_whenUserIsAMemberOfProject(){
-        Project existingProject = Project.builder().id(projectId).members(testMembers).build();
+    void deleteProject_should_markProjectDeletedWithOneConditionalUpdate_whenExpectedVersionMatches(){
+        when(projectRepository.existsByIdAndMembersId(projectId, testUserAMember.getId())).thenReturn(true);
+        when(projectRepository.findMemberIds(projectId)).thenReturn(List.of(testUserAMember.getId()));
+        when(projectRepository.markDeletedIfVersion(projectId, 3L)).thenReturn(1);
 
-        when(projectRepository.findById(projectId)).thenReturn(Optional.of(existingProject));
+        projectService.deleteProject(projectId, 3L, currentUserAMember);
+
+        verify(projectRepository, never()).findWithMembersById(projectId);
+        verify(projectRepository, never()).save(any(Project.class));
+        verify(cacheEvictor).evictProject(projectId);
+    }
 
-        projectService.deleteProject(projectId, testUserAMember);
 
-        verify(projectRepository).findById(projectId);
-        verify(projectRepository).delete(existingProject);
+    @Test
+    void deleteProject_should_markProjectDeletedWithoutLoadingIt_whenUserIsAMemberOfProject(){
+        when(projectRepository.existsByIdAndMembersId(projectId, testUserAMember.getId())).thenReturn(true);
+        when(projectRepository.findMemberIds(projectId)).thenReturn(List.of(testUserAMember.getId()));
+        when(projectRepository.markDeleted(projectId)).thenReturn(1);
+
+        projectService.deleteProject(projectId, null, currentUserAMember);
+
+        verify(projectRepository).markDeleted(projectId);
+        verify(projectRepository, never()).findWithMembersById(projectId);
+        verify(projectRepository, never()).save(any(Project.class));
+        verify(projectRepository, never()).delete(any(Project.class));
+        verify(cacheEvictor).evictProject(projectId);
     }
 
     @Test
     void deleteProject_should_throwAccessDeniedException_whenUserIsNotAMemberOfProject(){
-        Project existingProject = Project.builder().id(projectId).members(testMembers).build();
+        when(projectRepository.existsByIdAndMembersId(projectId, testUserNotAMember.getId())).thenReturn(false);
+        when(projectRepository.existsById(projectId)).thenReturn(true);
 
-        when(projectRepository.findById(projectId)).thenReturn(Optional.of(existingProject));
-
-        AccessDeniedException thrownException = assertThrows(AccessDeniedException.class, () -> projectService.deleteProject(projectId, testUserNotAMember));
+        AccessDeniedException thrownException = assertThrows(AccessDeniedException.class, () -> projectService.deleteProject(projectId, null, currentUserNotAMember));
 
         assertEquals("You are not a member of this project", thrownException.getMessage());
 
-        verify(projectRepository).findById(projectId);
+        verify(projectRepository, never()).markDeleted(projectId);
     }
 
     @Test
     void deleteProject_should_throwNotFoundException_whenProjectIsNotFound(){
-        when(projectRepository.findById(projectId)).thenReturn(Optional.empty());
+        when(projectRepository.existsByIdAndMembersId(projectId, testUserAMember.getId())).thenReturn(false);
+        when(projectRepository.existsById(projectId)).thenReturn(false);
 
-        EntityNotFoundException thrownError = assertThrows(EntityNotFoundException.class, () -> projectService.deleteProject(projectId, testUserAMember));
+        EntityNotFoundException thrownError = assertThrows(EntityNotFoundException.class, () -> projectService.deleteProject(projectId, null, currentUserAMember));
 
         assertEquals("Project with id " + projectId + " not found", thrownError.getMessage());
 
-        verify(projectRepository).findById(projectId);
+        verify(projectRepository).existsById(projectId);
     }
 
 
@@ -267,19 +366,19 @@ public class ProjectServiceTest {
 
         AddMemberRequest newMemberRequest = new AddMemberRequest(testUserNotAMember.getEmail());
 
-        when(projectRepository.findById(projectId)).thenReturn(Optional.of(existingProject));
+        when(projectRepository.findWithMembersById(projectId)).thenReturn(Optional.of(existingProject));
         when(userRepository.findByEmail(newMemberRequest.email()))
                 .thenReturn(Optional.ofNullable(testUserNotAMember));
         when(projectRepository.save(any(Project.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
 
-        Project result = projectService.addMemberToProject(projectId, newMemberRequest, testUserAMember);
+        Project result = projectService.addMemberToProject(projectId, newMemberRequest, currentUserAMember);
 
         assertNotNull(result);
         assertTrue(result.getMembers().contains(testUserNotAMember));
         assertEquals(result.getMembers().size(), testMembers.size());
 
-        verify(projectRepository).findById(projectId);
+        verify(projectRepository).findWithMembersById(projectId);
         verify(userRepository).findByEmail(newMemberRequest.email());
         verify(projectRepository).save(existingProject);
     }
@@ -290,18 +389,19 @@ public class ProjectServiceTest {
                 .id(projectId)
                 .members(testMembers)
                 .build();
+        when(projectRepository.findWithMembersById(projectId))
+                .thenReturn(Optional.of(existingProject));
         AddMemberRequest newMemberRequest = new AddMemberRequest(testUserNotAMember.getEmail());
 
-        when(projectRepository.findById(projectId)).thenReturn(Optional.of(existingProject));
 
         AccessDeniedException thrownException = assertThrows(
                 AccessDeniedException.class,
-                () -> projectService.addMemberToProject(projectId, newMemberRequest, testUserNotAMember)
+                () -> projectService.addMemberToProject(projectId, newMemberRequest, currentUserNotAMember)
         );
 
         assertEquals("You are not a member of this project", thrownException.getMessage());
 
-        verify(projectRepository).findById(projectId);
+        verify(projectRepository).findWithMembersById(projectId);
 
     }
 
@@ -313,19 +413,19 @@ public class ProjectServiceTest {
                 .build();
         AddMemberRequest newMemberRequest = new AddMemberRequest(testUserNotAMember.getEmail());
 
-        when(projectRepository.findById(projectId))
+        when(projectRepository.findWithMembersById(projectId))
                 .thenReturn(Optional.of(existingProject));
         when(userRepository.findByEmail(newMemberRequest.email()))
                 .thenReturn(Optional.empty());
 
         EntityNotFoundException thrownException = assertThrows(
                 EntityNotFoundException.class,
-                () -> projectService.addMemberToProject(projectId, newMemberRequest, testUserAMember)
+                () -> projectService.addMemberToProject(projectId, newMemberRequest, currentUserAMember)
         );
 
         assertEquals("User not found with email: " + newMemberRequest.email(), thrownException.getMessage());
 
-        verify(projectRepository).findById(projectId);
+        verify(projectRepository).findWithMembersById(projectId);
         verify(userRepository).findByEmail(newMemberRequest.email());
     }
 
@@ -338,36 +438,35 @@ public class ProjectServiceTest {
         existingProject.getMembers().add(testUserNotAMember);
         AddMemberRequest newMemberRequest = new AddMemberRequest(testUserNotAMember.getEmail());
 
-        when(projectRepository.findById(projectId))
+        when(projectRepository.findWithMembersById(projectId))
                 .thenReturn(Optional.of(existingProject));
         when(userRepository.findByEmail(newMemberRequest.email()))
                 .thenReturn(Optional.of(testUserNotAMember));
 
         IllegalStateException thrownException = assertThrows(
                 IllegalStateException.class,
-                () -> projectService.addMemberToProject(projectId, newMemberRequest, testUserNotAMember)
+                () -> projectService.addMemberToProject(projectId, newMemberRequest, currentUserNotAMember)
         );
 
         assertEquals("User is already member of this project", thrownException.getMessage());
         assertTrue(existingProject.getMembers().contains(testUserNotAMember));
         assertEquals(existingProject.getMembers().size(), testMembers.size());
 
-        verify(projectRepository).findById(projectId);
+        verify(projectRepository).findWithMembersById(projectId);
         verify(userRepository).findByEmail(newMemberRequest.email());
     }
 
     @Test
     void addMemberToProject_should_throwEntityNotFoundException_whenProjectDoesNotExist(){
-        when(projectRepository.findById(projectId)).thenReturn(Optional.empty());
 
         AddMemberRequest newMemberRequest = new AddMemberRequest(testUserNotAMember.getEmail());
 
         EntityNotFoundException thrownException = assertThrows(
                 EntityNotFoundException.class,
-                () -> projectService.addMemberToProject(projectId, newMemberRequest, testUserNotAMember)
+                () -> projectService.addMemberToProject(projectId, newMemberRequest, currentUserNotAMember)
         );
 
         assertEquals("Project with id " + projectId + " not found", thrownException.getMessage());
-        verify(projectRepository).findById(projectId);
+        verify(projectRepository).findWithMembersById(projectId);
     }
 }
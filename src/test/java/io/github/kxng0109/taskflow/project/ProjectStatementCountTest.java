@@ -0,0 +1,202 @@
+package io.github.kxng0109.taskflow.project;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.kxng0109.taskflow.project.dto.AddMemberRequest;
+import io.github.kxng0109.taskflow.project.dto.ProjectRequest;
+import io.github.kxng0109.taskflow.task.Task;
+import io.github.kxng0109.taskflow.task.TaskStatus;
+import io.github.kxng0109.taskflow.user.TestUsers;
+import io.github.kxng0109.taskflow.user.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//Stateless auth keeps the user lookup of the JWT filter out of the counts, so only the endpoint's own SQL is measured
+@SpringBootTest(properties = "app.jwt.stateless-auth=true")
+@AutoConfigureMockMvc
+@Transactional
+@ActiveProfiles("test")
+public class ProjectStatementCountTest {
+    private final String basePath = "/api/projects";
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private TestUsers testUsers;
+    @Autowired
+    private ProjectRepository projectRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User testUser;
+    private User otherUser;
+    private Project project;
+    private String token;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        testUser = testUsers.save("counted@email.com");
+        otherUser = testUsers.save("countedOther@email.com");
+
+        project = Project.builder().name("countedProject").description("description").build();
+        project.getMembers().add(testUser);
+        projectRepository.save(project);
+
+        token = testUsers.loginAndGetToken(testUser.getEmail());
+
+        //Nothing may be served from the persistence context, every entity has to come from a statement
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void getProjectById_should_loadProjectAndMembers_inOneStatement() throws Exception {
+        mockMvc.perform(get(basePath + "/{projectId}", project.getId())
+                                .header("Authorization", "Bearer " + token))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.members[*].name", hasItem(testUser.getName())));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void updateProject_should_loadAndUpdate_inTwoStatements() throws Exception {
+        mockMvc.perform(put(basePath + "/{projectId}", project.getId())
+                                .header("Authorization", "Bearer " + token)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new ProjectRequest("renamed", "changed"))))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.members[*].name", hasItem(testUser.getName())));
+        entityManager.flush();
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void addMemberToProject_should_loadProjectAndUserThenInsertOneRow_inThreeStatements() throws Exception {
+        mockMvc.perform(post(basePath + "/{projectId}/members", project.getId())
+                                .header("Authorization", "Bearer " + token)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new AddMemberRequest(otherUser.getEmail()))))
+               .andExpect(status().isCreated())
+               .andExpect(jsonPath("$.members[*].name", hasItem(otherUser.getName())));
+        entityManager.flush();
+
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void deleteProject_should_flagProjectWithoutLoadingItOrItsTasks_inThreeStatements() throws Exception {
+        Project managedProject = projectRepository.findWithMembersById(project.getId()).orElseThrow();
+        for (int i = 0; i < 50; i++) {
+            managedProject.addTask(Task.builder().title("task" + i).status(TaskStatus.TO_DO).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        mockMvc.perform(delete(basePath + "/{projectId}", project.getId())
+                                .header("Authorization", "Bearer " + token))
+               .andExpect(status().isNoContent());
+        entityManager.flush();
+
+        //Membership check, member ids for the index, and the flagging update
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void updateProject_should_rejectStaleIfMatch_withoutLoadingTheProject() throws Exception {
+        mockMvc.perform(put(basePath + "/{projectId}", project.getId())
+                                .header("Authorization", "Bearer " + token)
+                                .header(HttpHeaders.IF_MATCH, "\"99\"")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new ProjectRequest("renamed", "changed"))))
+               .andExpect(status().isPreconditionFailed());
+
+        assertEquals(0, statistics.getEntityStatistics(Project.class.getName()).getLoadCount());
+    }
+
+    @Test
+    void getTasksForProject_should_loadTasksWithTheirAssignees_inOneStatement() throws Exception {
+        Project taskProject = saveProjectWithAssignedTasks();
+
+        mockMvc.perform(get(basePath + "/{projectId}/tasks", taskProject.getId())
+                                .header("Authorization", "Bearer " + token))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.items", hasSize(30)))
+               .andExpect(jsonPath("$.items[0].assignee.name").value("countedAssigneeA@email.com"))
+               .andExpect(jsonPath("$.items[3].assignee").doesNotExist());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void getTaskById_should_loadTaskWithItsAssignee_inOneStatement() throws Exception {
+        Project taskProject = saveProjectWithAssignedTasks();
+
+        mockMvc.perform(get(basePath + "/{projectId}/tasks/{taskId}", taskProject.getId(), taskProject.getTasks().getFirst().getId())
+                                .header("Authorization", "Bearer " + token))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.assignee.name").value("countedAssigneeA@email.com"));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    //30 tasks spread over three assignees and nobody, with the caller's memberships already loaded into the
+    //in-memory index that task reads answer from
+    private Project saveProjectWithAssignedTasks() throws Exception {
+        List<User> assignees = List.of(
+                testUsers.save("countedAssigneeA@email.com"),
+                testUsers.save("countedAssigneeB@email.com"),
+                testUsers.save("countedAssigneeC@email.com")
+        );
+        Project taskProject = Project.builder().name("countedTasks").build();
+        taskProject.getMembers().add(testUser);
+        taskProject.getMembers().addAll(assignees);
+        projectRepository.save(taskProject);
+        for (int i = 0; i < 30; i++) {
+            taskProject.addTask(Task.builder()
+                                    .title("task" + i)
+                                    .status(TaskStatus.TO_DO)
+                                    .assignee(i % 4 < 3 ? assignees.get(i % 4) : null)
+                                    .build());
+        }
+        entityManager.flush();
+
+        mockMvc.perform(get(basePath + "/{projectId}/tasks", taskProject.getId()).header("Authorization", "Bearer " + token))
+               .andExpect(status().isOk());
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        return taskProject;
+    }
+}
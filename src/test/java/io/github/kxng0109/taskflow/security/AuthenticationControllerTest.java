@@ -0,0 +1,189 @@
+package io.github.kxng0109.taskflow.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import io.github.kxng0109.taskflow.security.dto.LoginRequest;
+import io.github.kxng0109.taskflow.security.dto.RefreshTokenRequest;
+import io.github.kxng0109.taskflow.security.dto.RegistrationRequest;
+import io.github.kxng0109.taskflow.user.User;
+import io.github.kxng0109.taskflow.user.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@ActiveProfiles("test")
+public class AuthenticationControllerTest {
+    private final String basePath = "/api/auth";
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void register_should_return201Created_whenEmailIsNew() throws Exception {
+        RegistrationRequest registrationRequest = new RegistrationRequest("testName", "newEmail@email.com", "testPassword");
+
+        mockMvc.perform(post(basePath + "/register")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(registrationRequest)))
+               .andExpect(status().isCreated());
+    }
+
+    @Test
+    void register_should_throw409Conflict_whenEmailIsAlreadyRegistered() throws Exception {
+        User user = saveUser("takenEmail@email.com", passwordEncoder.encode("testPassword"));
+        RegistrationRequest registrationRequest = new RegistrationRequest("testName", user.getEmail(), "testPassword");
+
+        mockMvc.perform(post(basePath + "/register")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(registrationRequest)))
+               .andExpect(status().isConflict())
+               .andExpect(jsonPath("$.message").value("User with that email already exists."));
+    }
+
+    @Test
+    void register_should_throw400BadRequest_whenFieldsAreTooLong() throws Exception {
+        RegistrationRequest registrationRequest = new RegistrationRequest("n".repeat(256), "e".repeat(250) + "@email.com", "p".repeat(73));
+
+        mockMvc.perform(post(basePath + "/register")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(registrationRequest)))
+               .andExpect(status().isBadRequest())
+               .andExpect(jsonPath("$.name").value("Name must be at most 255 characters long"))
+               .andExpect(jsonPath("$.email").exists())
+               .andExpect(jsonPath("$.password").value("Password must be at most 72 characters long"));
+    }
+
+    @Test
+    void login_should_return200OkAndToken_whenCredentialsAreValid() throws Exception {
+        User user = saveUser("loginEmail@email.com", passwordEncoder.encode("testPassword"));
+
+        mockMvc.perform(post(basePath + "/login")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new LoginRequest(user.getEmail(), "testPassword"))))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.accessToken").isNotEmpty());
+    }
+
+    @Test
+    void login_should_upgradeStoredHash_whenItWasCreatedWithoutTheEncoderPrefix() throws Exception {
+        String legacyHash = new BCryptPasswordEncoder(4).encode("testPassword");
+        User user = saveUser("legacyEmail@email.com", legacyHash);
+
+        mockMvc.perform(post(basePath + "/login")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new LoginRequest(user.getEmail(), "testPassword"))))
+               .andExpect(status().isOk());
+
+        entityManager.clear();
+        String storedHash = userRepository.findByEmail(user.getEmail()).orElseThrow().getPassword();
+        assertNotEquals(legacyHash, storedHash);
+        assertTrue(storedHash.startsWith("{bcrypt}"));
+        assertTrue(passwordEncoder.matches("testPassword", storedHash));
+    }
+
+    @Test
+    void refresh_should_return200OkAndNewTokens_whenRefreshTokenIsValid() throws Exception {
+        User user = saveUser("refreshEmail@email.com", passwordEncoder.encode("testPassword"));
+        String refreshToken = JsonPath.parse(login(user.getEmail())).read("$.refreshToken");
+
+        mockMvc.perform(post(basePath + "/refresh")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new RefreshTokenRequest(refreshToken))))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.accessToken").isNotEmpty())
+               .andExpect(jsonPath("$.refreshToken").value(not(refreshToken)));
+    }
+
+    @Test
+    void refresh_should_throw401Unauthorized_whenRefreshTokenWasAlreadyUsed() throws Exception {
+        User user = saveUser("reusedEmail@email.com", passwordEncoder.encode("testPassword"));
+        String refreshToken = JsonPath.parse(login(user.getEmail())).read("$.refreshToken");
+        String refreshRequest = objectMapper.writeValueAsString(new RefreshTokenRequest(refreshToken));
+
+        mockMvc.perform(post(basePath + "/refresh")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(refreshRequest))
+               .andExpect(status().isOk());
+
+        mockMvc.perform(post(basePath + "/refresh")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(refreshRequest))
+               .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void refresh_should_throw401Unauthorized_whenRefreshTokenIsUnknown() throws Exception {
+        mockMvc.perform(post(basePath + "/refresh")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new RefreshTokenRequest("unknown"))))
+               .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void logout_should_revokeAccessAndRefreshTokens() throws Exception {
+        User user = saveUser("logoutEmail@email.com", passwordEncoder.encode("testPassword"));
+        String loginResponse = login(user.getEmail());
+        String accessToken = JsonPath.parse(loginResponse).read("$.accessToken");
+        String refreshRequest = objectMapper.writeValueAsString(
+                new RefreshTokenRequest(JsonPath.parse(loginResponse).read("$.refreshToken"))
+        );
+
+        mockMvc.perform(get("/api/projects").header("Authorization", "Bearer " + accessToken))
+               .andExpect(status().isOk());
+
+        mockMvc.perform(post(basePath + "/logout")
+                                .header("Authorization", "Bearer " + accessToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(refreshRequest))
+               .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/projects").header("Authorization", "Bearer " + accessToken))
+               .andExpect(status().isUnauthorized());
+        mockMvc.perform(post(basePath + "/refresh")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(refreshRequest))
+               .andExpect(status().isUnauthorized());
+    }
+
+    private String login(String email) throws Exception {
+        return mockMvc.perform(post(basePath + "/login")
+                                       .contentType(MediaType.APPLICATION_JSON)
+                                       .content(objectMapper.writeValueAsString(new LoginRequest(email, "testPassword"))))
+                      .andExpect(status().isOk())
+                      .andReturn().getResponse().getContentAsString();
+    }
+
+    private User saveUser(String email, String encodedPassword) {
+        User user = User.builder()
+                        .name("testName")
+                        .email(email)
+                        .password(encodedPassword)
+                        .build();
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,74 @@
+package io.github.kxng0109.taskflow.security;
+
+import io.github.kxng0109.taskflow.user.TestUsers;
+import io.github.kxng0109.taskflow.user.User;
+import io.github.kxng0109.taskflow.user.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//The test profile turns the user cache off, this context turns it back on. Every test uses its own emails, since
+//users rolled back by one test could otherwise still be served from the cache to the next.
+@SpringBootTest(properties = "app.security.user-cache.max-size=100")
+@AutoConfigureMockMvc
+@Transactional
+@ActiveProfiles("test")
+public class UserCacheIntegrationTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private TestUsers testUsers;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void authenticatedRequests_should_loadTheirPrincipalFromTheUserCache() throws Exception {
+        User user = testUsers.save("cachedRequests@email.com");
+        String token = testUsers.loginAndGetToken(user.getEmail());
+        double hitsBefore = userCacheHits();
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/projects").header("Authorization", "Bearer " + token))
+                   .andExpect(status().isOk());
+        }
+
+        assertEquals(2, userCacheHits() - hitsBefore);
+    }
+
+    @Test
+    void login_should_acceptUpgradedHash_afterTheCachedUserWasEvicted() throws Exception {
+        User user = userRepository.save(User.builder()
+                                                .name("legacyCached")
+                                                .email("legacyCached@email.com")
+                                                .password(new BCryptPasswordEncoder(4).encode(TestUsers.PASSWORD))
+                                                .build());
+
+        testUsers.loginAndGetToken(user.getEmail());
+        String token = testUsers.loginAndGetToken(user.getEmail());
+
+        entityManager.clear();
+        assertTrue(userRepository.findByEmail(user.getEmail()).orElseThrow().getPassword().startsWith("{bcrypt}"));
+        mockMvc.perform(get("/api/projects").header("Authorization", "Bearer " + token))
+               .andExpect(status().isOk());
+    }
+
+    private double userCacheHits() {
+        return meterRegistry.get("cache.gets").tags("cache", "userDetails", "result", "hit").functionCounter().count();
+    }
+}
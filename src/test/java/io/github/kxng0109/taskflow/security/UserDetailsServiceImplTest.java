@@ -0,0 +1,106 @@
+package io.github.kxng0109.taskflow.security;
+
+import io.github.kxng0109.taskflow.user.User;
+import io.github.kxng0109.taskflow.user.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserDetailsServiceImplTest {
+    private final String email = "cached@email.com";
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserDetailsServiceImpl userDetailsService;
+    private User user;
+
+    @BeforeEach
+    public void setup() {
+        userDetailsService = new UserDetailsServiceImpl(userRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+        user = User.builder()
+                .id(1L)
+                .name("cachedUser")
+                .email(email)
+                .password("encodedPassword")
+                .build();
+    }
+
+    @Test
+    void loadUserByUsername_should_queryOnce_whenUserIsLoadedAgain() {
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+
+        assertEquals(UserCredentials.from(user), userDetailsService.loadUserByUsername(email));
+        assertEquals(UserCredentials.from(user), userDetailsService.loadUserByUsername(email));
+        assertEquals(user.getId(), userDetailsService.loadAuthenticatedUser(email).id());
+
+        verify(userRepository, times(1)).findByEmail(email);
+    }
+
+    @Test
+    void loadUserByUsername_should_cacheASnapshot_thatChangesToTheEntityDoNotReach() {
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        userDetailsService.loadUserByUsername(email);
+
+        user.setPassword("changedPassword");
+
+        assertInstanceOf(UserCredentials.class, userDetailsService.loadUserByUsername(email));
+        assertEquals("encodedPassword", userDetailsService.loadUserByUsername(email).getPassword());
+    }
+
+    @Test
+    void loadUserByUsername_should_notCacheMiss_whenEmailIsUnknown() {
+        when(userRepository.findByEmail(email)).thenReturn(Optional.empty(), Optional.of(user));
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername(email));
+        assertEquals(email, userDetailsService.loadUserByUsername(email).getUsername());
+
+        verify(userRepository, times(2)).findByEmail(email);
+    }
+
+    @Test
+    void loadUserByUsername_should_reloadUser_whenEntryHasExpired() throws InterruptedException {
+        UserDetailsServiceImpl shortLivedService = new UserDetailsServiceImpl(
+                userRepository, new SimpleMeterRegistry(), 100, Duration.ofMillis(50)
+        );
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+
+        shortLivedService.loadUserByUsername(email);
+        Thread.sleep(100);
+        shortLivedService.loadUserByUsername(email);
+
+        verify(userRepository, times(2)).findByEmail(email);
+    }
+
+    @Test
+    void updatePassword_should_evictUser_soTheNewHashIsReloaded() {
+        User rehashed = User.builder()
+                .id(1L)
+                .name("cachedUser")
+                .email(email)
+                .password("rehashedPassword")
+                .build();
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user), Optional.of(rehashed));
+        UserCredentials cached = (UserCredentials) userDetailsService.loadUserByUsername(email);
+
+        UserDetails updated = userDetailsService.updatePassword(cached, "rehashedPassword");
+
+        assertEquals("rehashedPassword", updated.getPassword());
+        assertEquals("encodedPassword", cached.getPassword());
+        assertEquals(UserCredentials.from(rehashed), userDetailsService.loadUserByUsername(email));
+        verify(userRepository).updatePasswordByEmail(email, "rehashedPassword");
+        verify(userRepository, times(2)).findByEmail(email);
+    }
+}
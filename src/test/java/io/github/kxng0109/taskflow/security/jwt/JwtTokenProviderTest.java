@@ -0,0 +1,97 @@
+package io.github.kxng0109.taskflow.security.jwt;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtTokenProviderTest {
+    private static final String SECRET = "test-secret-test-secret-test-secret-test-secret-test-secret-test-secret";
+    private static final String OTHER_SECRET = "other-secret-other-secret-other-secret-other-secret-other-secret";
+
+    private SimpleMeterRegistry meterRegistry;
+    private JwtTokenProvider jwtTokenProvider;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        jwtTokenProvider = provider(SECRET, 60000);
+    }
+
+    @Test
+    void verify_should_countMalformedTokens_byReason() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(JwtFailureReason.MALFORMED, jwtTokenProvider.verify("not-a-token").failureReason());
+        }
+
+        assertEquals(3, failures("malformed"));
+        assertEquals(0, failures("signature"));
+    }
+
+    @Test
+    void verify_should_countInvalidSignatures_whenSignedWithAnotherKey() {
+        String token = provider(OTHER_SECRET, 60000).generateJwtToken(
+                new UsernamePasswordAuthenticationToken("test@email.com", null));
+
+        JwtVerificationResult result = jwtTokenProvider.verify(token);
+
+        assertFalse(result.isValid());
+        assertEquals(JwtFailureReason.INVALID_SIGNATURE, result.failureReason());
+        assertEquals(1, failures("signature"));
+    }
+
+    @Test
+    void verify_should_countExpiredTokens() {
+        String token = provider(SECRET, -1000).generateJwtToken(
+                new UsernamePasswordAuthenticationToken("test@email.com", null));
+
+        assertEquals(JwtFailureReason.EXPIRED, jwtTokenProvider.verify(token).failureReason());
+        assertEquals(1, failures("expired"));
+    }
+
+    @Test
+    void verify_should_notCountAnything_whenTokenIsValid() {
+        String token = jwtTokenProvider.generateJwtToken(new UsernamePasswordAuthenticationToken("test@email.com", null));
+
+        assertTrue(jwtTokenProvider.verify(token).isValid());
+        assertEquals(0, meterRegistry.get("jwt.verification.failures").counters().stream()
+                .mapToDouble(counter -> counter.count()).sum());
+    }
+
+    @Test
+    void verify_should_answerFromCacheWithoutParsing_whenTokenWasVerifiedBefore() {
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(meterRegistry, 100);
+        JwtTokenProvider cachingProvider = new JwtTokenProvider(
+                SECRET, 60000, verifiedTokenCache, new JwtFailureMonitor(meterRegistry, 60000)
+        );
+        //Parsing this would fail, so a valid result can only have come from the cache
+        String unparseableToken = "not-a-token";
+        VerifiedToken cachedToken = new VerifiedToken(
+                "id", "cached@email.com", 1L, "cached", "USER", Instant.now(), Instant.now().plus(1, ChronoUnit.MINUTES)
+        );
+        verifiedTokenCache.put(verifiedTokenCache.digest(unparseableToken), cachedToken);
+
+        JwtVerificationResult result = cachingProvider.verify(unparseableToken);
+
+        assertTrue(result.isValid());
+        assertEquals("cached@email.com", result.token().subject());
+        assertEquals(0, failures("malformed"));
+    }
+
+    private JwtTokenProvider provider(String secret, int expirationMs) {
+        return new JwtTokenProvider(
+                secret, expirationMs,
+                new VerifiedTokenCache(meterRegistry, 100),
+                new JwtFailureMonitor(meterRegistry, 60000)
+        );
+    }
+
+    private double failures(String reason) {
+        return meterRegistry.get("jwt.verification.failures").tag("reason", reason).counter().count();
+    }
+}
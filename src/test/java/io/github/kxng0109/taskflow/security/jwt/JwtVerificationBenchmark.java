@@ -0,0 +1,76 @@
+package io.github.kxng0109.taskflow.security.jwt;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-request cost of the old validate-then-extract path (key re-derived and signature checked twice)
+ * with the single-parse {@link JwtTokenProvider#verify(String)}, with and without the {@link VerifiedTokenCache}.
+ * Run with: {@code ./mvnw test-compile} and then the {@code main} method below from the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-benchmark-secret";
+
+    private JwtTokenProvider jwtTokenProvider;
+    private JwtTokenProvider cachingJwtTokenProvider;
+    private String token;
+
+    @Setup
+    public void setup() {
+        //A zero-sized cache never returns a hit, leaving only the digest on top of the parse
+        jwtTokenProvider = new JwtTokenProvider(
+                SECRET, 86400000, new VerifiedTokenCache(new SimpleMeterRegistry(), 0),
+                new JwtFailureMonitor(new SimpleMeterRegistry(), 60000)
+        );
+        cachingJwtTokenProvider = new JwtTokenProvider(
+                SECRET, 86400000, new VerifiedTokenCache(new SimpleMeterRegistry(), 1000),
+                new JwtFailureMonitor(new SimpleMeterRegistry(), 60000)
+        );
+        token = jwtTokenProvider.generateJwtToken(
+                new UsernamePasswordAuthenticationToken("bench@email.com", null)
+        );
+    }
+
+    @Benchmark
+    public String legacyValidateThenExtract() {
+        Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes())).build().parse(token);
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload()
+                .getSubject();
+    }
+
+    @Benchmark
+    public String singleVerify() {
+        return jwtTokenProvider.verify(token).token().subject();
+    }
+
+    @Benchmark
+    public String cachedVerify() {
+        return cachingJwtTokenProvider.verify(token).token().subject();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
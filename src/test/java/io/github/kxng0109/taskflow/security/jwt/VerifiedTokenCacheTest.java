@@ -0,0 +1,61 @@
+package io.github.kxng0109.taskflow.security.jwt;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VerifiedTokenCacheTest {
+    private VerifiedTokenCache verifiedTokenCache;
+    private String tokenDigest;
+
+    @BeforeEach
+    public void setup() {
+        verifiedTokenCache = new VerifiedTokenCache(new SimpleMeterRegistry(), 100);
+        tokenDigest = verifiedTokenCache.digest("header.payload.signature");
+    }
+
+    @Test
+    void get_should_returnToken_whenItWasPutBeforeItsExpiry() {
+        VerifiedToken token = tokenExpiringAt(Instant.now().plus(1, ChronoUnit.MINUTES));
+
+        verifiedTokenCache.put(tokenDigest, token);
+
+        assertSame(token, verifiedTokenCache.get(tokenDigest));
+    }
+
+    @Test
+    void get_should_returnNull_onceTheTokenHasExpired() throws InterruptedException {
+        verifiedTokenCache.put(tokenDigest, tokenExpiringAt(Instant.now().plusMillis(50)));
+
+        Thread.sleep(100);
+
+        assertNull(verifiedTokenCache.get(tokenDigest));
+    }
+
+    @Test
+    void put_should_skipToken_whenItHasNoExpiryOrHasAlreadyExpired() {
+        verifiedTokenCache.put(tokenDigest, tokenExpiringAt(null));
+        assertNull(verifiedTokenCache.get(tokenDigest));
+
+        verifiedTokenCache.put(tokenDigest, tokenExpiringAt(Instant.now().minusSeconds(1)));
+        assertNull(verifiedTokenCache.get(tokenDigest));
+    }
+
+    @Test
+    void put_should_storeNothing_whenMaxSizeIsZero() {
+        VerifiedTokenCache disabledCache = new VerifiedTokenCache(new SimpleMeterRegistry(), 0);
+
+        disabledCache.put(tokenDigest, tokenExpiringAt(Instant.now().plus(1, ChronoUnit.MINUTES)));
+
+        assertNull(disabledCache.get(tokenDigest));
+    }
+
+    private VerifiedToken tokenExpiringAt(Instant expiresAt) {
+        return new VerifiedToken("id", "test@email.com", 1L, "testName", "USER", Instant.now(), expiresAt);
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.kxng0109.taskflow.security.password;
+
+import io.github.kxng0109.taskflow.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHashingExecutorTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordHashingExecutor passwordHashingExecutor =
+            new PasswordHashingExecutor(meterRegistry, 1, 1, 5);
+
+    @AfterEach
+    public void tearDown() {
+        passwordHashingExecutor.destroy();
+    }
+
+    @Test
+    void execute_should_returnTheJobResult() {
+        assertEquals("hashed", passwordHashingExecutor.execute(() -> "hashed"));
+    }
+
+    @Test
+    void execute_should_throwServiceOverloadedException_whenThreadAndQueueAreFull() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> runningJob = CompletableFuture.supplyAsync(() -> passwordHashingExecutor.execute(() -> {
+            running.countDown();
+            await(release);
+            return "first";
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queuedJob = CompletableFuture.supplyAsync(() -> passwordHashingExecutor.execute(() -> "second"));
+        //Wait until the second job has taken the only queue slot
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("password.hashing.queue.size").gauge().value() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        ServiceOverloadedException thrownException = assertThrows(
+                ServiceOverloadedException.class,
+                () -> passwordHashingExecutor.execute(() -> "third")
+        );
+
+        assertEquals(5, thrownException.getRetryAfterSeconds());
+
+        release.countDown();
+        assertEquals("first", runningJob.get(5, TimeUnit.SECONDS));
+        assertEquals("second", queuedJob.get(5, TimeUnit.SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try{
+            latch.await(5, TimeUnit.SECONDS);
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+    }
+}
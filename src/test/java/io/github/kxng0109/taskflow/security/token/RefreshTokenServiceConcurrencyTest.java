@@ -0,0 +1,84 @@
+package io.github.kxng0109.taskflow.security.token;
+
+import io.github.kxng0109.taskflow.user.TestUsers;
+import io.github.kxng0109.taskflow.user.User;
+import io.github.kxng0109.taskflow.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Not @Transactional: every refresh has to commit on its own for the conditional update to arbitrate
+@SpringBootTest
+@ActiveProfiles("test")
+public class RefreshTokenServiceConcurrencyTest {
+    private static final int PARALLEL_REFRESHES = 8;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private TestUsers testUsers;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    public void setup() {
+        user = testUsers.save("concurrentRefresh@email.com");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.update("delete from refresh_tokens where user_id = ?", user.getId());
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void consumeRefreshToken_should_succeedExactlyOnce_whenTheSameTokenIsRefreshedInParallel() throws Exception {
+        String refreshToken = refreshTokenService.issueRefreshToken(user.getId());
+        ExecutorService executor = Executors.newFixedThreadPool(PARALLEL_REFRESHES);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<User>> refreshes = new ArrayList<>();
+        for (int i = 0; i < PARALLEL_REFRESHES; i++) {
+            refreshes.add(executor.submit(() -> {
+                start.await();
+                return refreshTokenService.consumeRefreshToken(refreshToken);
+            }));
+        }
+        start.countDown();
+
+        int succeeded = 0;
+        int rejected = 0;
+        for (Future<User> refresh : refreshes) {
+            try{
+                assertEquals(user.getId(), refresh.get(30, TimeUnit.SECONDS).getId());
+                succeeded++;
+            }catch(ExecutionException e){
+                assertInstanceOf(BadCredentialsException.class, e.getCause());
+                assertEquals("Refresh token has already been used", e.getCause().getMessage());
+                rejected++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, succeeded);
+        assertEquals(PARALLEL_REFRESHES - 1, rejected);
+    }
+}
@@ -5,7 +5,10 @@ import com.jayway.jsonpath.JsonPath;
 import io.github.kxng0109.taskflow.project.Project;
 import io.github.kxng0109.taskflow.project.ProjectRepository;
 import io.github.kxng0109.taskflow.security.dto.LoginRequest;
+import io.github.kxng0109.taskflow.task.dto.TaskBatchRequest;
+import io.github.kxng0109.taskflow.task.dto.TaskBatchResponse;
 import io.github.kxng0109.taskflow.task.dto.TaskRequest;
+import io.github.kxng0109.taskflow.task.dto.TaskStatusTransitionRequest;
 import io.github.kxng0109.taskflow.user.User;
 import io.github.kxng0109.taskflow.user.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,6 +16,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
@@ -20,9 +24,14 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -210,8 +219,49 @@ public class TaskControllerTest {
         mockMvc.perform(get(basePath + "/tasks", task.getProject().getId())
                                 .header("Authorization", "Bearer " + token))
                .andExpect(status().isOk())
-               .andExpect(jsonPath("$.[0].id").value(task.getId()))
-               .andExpect(jsonPath("$.[0].description").value(task.getDescription()));
+               .andExpect(jsonPath("$.items[0].id").value(task.getId()))
+               .andExpect(jsonPath("$.items[0].description").value(task.getDescription()))
+               .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void getTasksForProject_should_pageThroughFilteredTasks_whenLimitIsSmallerThanTheirCount() throws Exception {
+        Project project = setupProjectWithMember();
+        String token = loginAndGetToken();
+        Long first = createTask(project, token, new TaskRequest("first", null, TaskStatus.DONE.name(), testUser.getId()));
+        createTask(project, token, new TaskRequest("skipped", null, TaskStatus.TO_DO.name(), testUser.getId()));
+        createTask(project, token, new TaskRequest("unassigned", null, TaskStatus.DONE.name(), null));
+        Long second = createTask(project, token, new TaskRequest("second", null, TaskStatus.DONE.name(), testUser.getId()));
+
+        String firstPage = mockMvc.perform(get(basePath + "/tasks", project.getId())
+                                                   .header("Authorization", "Bearer " + token)
+                                                   .param("status", TaskStatus.DONE.name())
+                                                   .param("assigneeId", testUser.getId().toString())
+                                                   .param("limit", "1"))
+                                  .andExpect(status().isOk())
+                                  .andExpect(jsonPath("$.items[*].id", contains(first.intValue())))
+                                  .andExpect(jsonPath("$.items[0].assignee.name").value(testUser.getName()))
+                                  .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get(basePath + "/tasks", project.getId())
+                                .header("Authorization", "Bearer " + token)
+                                .param("status", TaskStatus.DONE.name())
+                                .param("assigneeId", testUser.getId().toString())
+                                .param("limit", "1")
+                                .param("cursor", JsonPath.parse(firstPage).read("$.nextCursor", String.class)))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.items[*].id", contains(second.intValue())))
+               .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void getTasksForProject_should_throw400BadRequest_whenCursorIsInvalid() throws Exception {
+        Project project = setupProjectWithMember();
+
+        mockMvc.perform(get(basePath + "/tasks", project.getId())
+                                .header("Authorization", "Bearer " + loginAndGetToken())
+                                .param("cursor", "not a cursor"))
+               .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -443,6 +493,65 @@ public class TaskControllerTest {
                .andExpect(status().isForbidden());
     }
 
+    @Test
+    void updateTaskInProject_should_return200OkAndNewETag_whenIfMatchIsCurrent() throws Exception {
+        Project project = setupProjectWithMember();
+        String token = loginAndGetToken();
+        Long taskId = createTask(project, token, new TaskRequest("title", null, TaskStatus.TO_DO.name(), null));
+        String eTag = mockMvc.perform(get(basePath + "/tasks/{taskId}", project.getId(), taskId)
+                                              .header("Authorization", "Bearer " + token))
+                             .andExpect(status().isOk())
+                             .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(put(basePath + "/tasks/{taskId}", project.getId(), taskId)
+                                .header("Authorization", "Bearer " + token)
+                                .header(HttpHeaders.IF_MATCH, eTag)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(
+                                        new TaskRequest("new title", null, TaskStatus.DONE.name(), testUser.getId()))))
+               .andExpect(status().isOk())
+               .andExpect(header().string(HttpHeaders.ETAG, not(eTag)))
+               .andExpect(jsonPath("$.title").value("new title"))
+               .andExpect(jsonPath("$.assignee.id").value(testUser.getId()));
+
+        mockMvc.perform(get(basePath + "/stats", project.getId())
+                                .header("Authorization", "Bearer " + token))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.byStatus.TO_DO").value(0))
+               .andExpect(jsonPath("$.byStatus.DONE").value(1));
+    }
+
+    @Test
+    void updateTaskInProject_should_throw412PreconditionFailed_whenIfMatchIsStale() throws Exception {
+        Project project = setupProjectWithMember();
+        String token = loginAndGetToken();
+        Long taskId = createTask(project, token, new TaskRequest("title", null, TaskStatus.TO_DO.name(), null));
+
+        mockMvc.perform(put(basePath + "/tasks/{taskId}", project.getId(), taskId)
+                                .header("Authorization", "Bearer " + token)
+                                .header(HttpHeaders.IF_MATCH, "\"99\"")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(
+                                        new TaskRequest("new title", null, TaskStatus.DONE.name(), null))))
+               .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void deleteTaskInProject_should_throw412PreconditionFailed_whenIfMatchIsStale() throws Exception {
+        Project project = setupProjectWithMember();
+        String token = loginAndGetToken();
+        Long taskId = createTask(project, token, new TaskRequest("title", null, TaskStatus.TO_DO.name(), null));
+
+        mockMvc.perform(delete(basePath + "/tasks/{taskId}", project.getId(), taskId)
+                                .header("Authorization", "Bearer " + token)
+                                .header(HttpHeaders.IF_MATCH, "\"99\""))
+               .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get(basePath + "/tasks/{taskId}", project.getId(), taskId)
+                                .header("Authorization", "Bearer " + token))
+               .andExpect(status().isOk());
+    }
+
 
     @Test
     void deleteTaskInProject_should_return204NoContent_whenUserIsAuthenticatedAndTaskExists() throws Exception {
@@ -494,6 +603,228 @@ public class TaskControllerTest {
     }
 
 
+    @Test
+    void createTasksInProject_should_return201CreatedAndIdsInRequestOrder_whenUserIsAuthenticatedAndMember() throws Exception {
+        Project project = setupProjectWithMember();
+        String token = loginAndGetToken();
+        createTask(project, token, new TaskRequest("single", null, TaskStatus.TO_DO.name(), null));
+        TaskBatchRequest batchRequest = new TaskBatchRequest(List.of(
+                new TaskRequest("batch0", "first", TaskStatus.TO_DO.name(), testUser.getId()),
+                new TaskRequest("batch1", null, TaskStatus.DONE.name(), null),
+                new TaskRequest("batch2", null, TaskStatus.TO_DO.name(), testUser.getId())
+        ));
+
+        String result = mockMvc.perform(post(basePath + "/tasks:batch", project.getId())
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .content(objectMapper.writeValueAsString(batchRequest))
+                                                .header("Authorization", "Bearer " + token))
+                               .andExpect(status().isCreated())
+                               .andExpect(jsonPath("$.createdIds", hasSize(3)))
+                               .andReturn().getResponse().getContentAsString();
+        List<Long> createdIds = objectMapper.readValue(result, TaskBatchResponse.class).createdIds();
+
+        for (int i = 0; i < createdIds.size(); i++) {
+            mockMvc.perform(get(basePath + "/tasks/{taskId}", project.getId(), createdIds.get(i))
+                                    .header("Authorization", "Bearer " + token))
+                   .andExpect(status().isOk())
+                   .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                   .andExpect(jsonPath("$.title").value("batch" + i));
+        }
+        mockMvc.perform(get(basePath + "/stats", project.getId())
+                                .header("Authorization", "Bearer " + token))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.totalTasks").value(4))
+               .andExpect(jsonPath("$.byStatus.TO_DO").value(3))
+               .andExpect(jsonPath("$.byStatus.DONE").value(1))
+               .andExpect(jsonPath("$.unassignedTasks").value(2))
+               .andExpect(jsonPath("$.byAssignee[0].taskCount").value(2));
+    }
+
+    @Test
+    void createTasksInProject_should_throw403AccessDeniedExceptionAndCreateNothing_whenAnAssigneeIsNotAMember() throws Exception {
+        Project project = setupProjectWithMember();
+        String token = loginAndGetToken();
+        TaskBatchRequest batchRequest = new TaskBatchRequest(List.of(
+                new TaskRequest("fine", null, TaskStatus.TO_DO.name(), testUser.getId()),
+                new TaskRequest("outsider", null, TaskStatus.TO_DO.name(), testUser2.getId())
+        ));
+
+        mockMvc.perform(post(basePath + "/tasks:batch", project.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(batchRequest))
+                                .header("Authorization", "Bearer " + token))
+               .andExpect(status().isForbidden());
+
+        mockMvc.perform(get(basePath + "/tasks", project.getId())
+                                .header("Authorization", "Bearer " + token))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.items", hasSize(0)));
+    }
+
+    @Test
+    void createTasksInProject_should_throw400MethodArgumentNotValidException_whenATaskIsMalformed() throws Exception {
+        Project project = setupProjectWithMember();
+        TaskBatchRequest batchRequest = new TaskBatchRequest(List.of(
+                new TaskRequest("fine", null, TaskStatus.TO_DO.name(), null),
+                new TaskRequest("", null, "NOT_A_STATUS", null)
+        ));
+
+        mockMvc.perform(post(basePath + "/tasks:batch", project.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(batchRequest))
+                                .header("Authorization", "Bearer " + loginAndGetToken()))
+               .andExpect(status().isBadRequest());
+    }
+
+
+    @Test
+    void transitionTaskStatus_should_moveMatchingTasksAndRecountStats_whenFilteredByStatusAndAssignee() throws Exception {
+        Project project = setupProjectWithMember();
+        String token = loginAndGetToken();
+        Long movedTaskId = createTask(project, token, new TaskRequest("mine", null, TaskStatus.TO_DO.name(), testUser.getId()));
+        createTask(project, token, new TaskRequest("mineToo", null, TaskStatus.TO_DO.name(), testUser.getId()));
+        createTask(project, token, new TaskRequest("unassigned", null, TaskStatus.TO_DO.name(), null));
+        createTask(project, token, new TaskRequest("done", null, TaskStatus.DONE.name(), testUser.getId()));
+
+        mockMvc.perform(post(basePath + "/tasks:transition", project.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new TaskStatusTransitionRequest(
+                                        null, TaskStatus.TO_DO, testUser.getId(), TaskStatus.DONE
+                                )))
+                                .header("Authorization", "Bearer " + token))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.updatedTasks").value(2));
+
+        mockMvc.perform(get(basePath + "/tasks/{taskId}", project.getId(), movedTaskId)
+                                .header("Authorization", "Bearer " + token))
+               .andExpect(status().isOk())
+               .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+               .andExpect(jsonPath("$.status").value(TaskStatus.DONE.name()));
+        mockMvc.perform(get(basePath + "/stats", project.getId())
+                                .header("Authorization", "Bearer " + token))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.totalTasks").value(4))
+               .andExpect(jsonPath("$.byStatus.TO_DO").value(1))
+               .andExpect(jsonPath("$.byStatus.DONE").value(3))
+               .andExpect(jsonPath("$.byAssignee[0].taskCount").value(3));
+    }
+
+    @Test
+    void transitionTaskStatus_should_onlyMoveListedTasksOfThisProject_whenGivenTaskIds() throws Exception {
+        Project project = setupProjectWithMember();
+        Task otherProjectTask = setupTaskInOtherProject();
+        String token = loginAndGetToken();
+        Long listedTaskId = createTask(project, token, new TaskRequest("listed", null, TaskStatus.TO_DO.name(), null));
+        createTask(project, token, new TaskRequest("notListed", null, TaskStatus.TO_DO.name(), null));
+
+        mockMvc.perform(post(basePath + "/tasks:transition", project.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new TaskStatusTransitionRequest(
+                                        List.of(listedTaskId, otherProjectTask.getId()), null, null, TaskStatus.IN_PROGRESS
+                                )))
+                                .header("Authorization", "Bearer " + token))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.updatedTasks").value(1));
+
+        mockMvc.perform(get(basePath + "/stats", project.getId())
+                                .header("Authorization", "Bearer " + token))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.byStatus.TO_DO").value(1))
+               .andExpect(jsonPath("$.byStatus.IN_PROGRESS").value(1));
+    }
+
+    @Test
+    void transitionTaskStatus_should_throw400MethodArgumentNotValidException_whenNoTasksAreSelected() throws Exception {
+        Project project = setupProjectWithMember();
+
+        mockMvc.perform(post(basePath + "/tasks:transition", project.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new TaskStatusTransitionRequest(
+                                        null, null, null, TaskStatus.DONE
+                                )))
+                                .header("Authorization", "Bearer " + loginAndGetToken()))
+               .andExpect(status().isBadRequest())
+               .andExpect(jsonPath("$.targeted").exists());
+    }
+
+    @Test
+    void transitionTaskStatus_should_throw403AccessDeniedException_whenUserIsAuthenticatedAndNotAMember() throws Exception {
+        Task task = setupTaskInOtherProject();
+
+        mockMvc.perform(post(basePath + "/tasks:transition", task.getProject().getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new TaskStatusTransitionRequest(
+                                        null, TaskStatus.IN_PROGRESS, null, TaskStatus.DONE
+                                )))
+                                .header("Authorization", "Bearer " + loginAndGetToken()))
+               .andExpect(status().isForbidden());
+    }
+
+
+    @Test
+    void getProjectStats_should_return200OkAndCountsFromCounters_whenTasksChangeThroughTheApi() throws Exception {
+        Project project = setupProjectWithMember();
+        String token = loginAndGetToken();
+        Long firstTaskId = createTask(project, token, new TaskRequest("first", null, TaskStatus.TO_DO.name(), testUser.getId()));
+        Long secondTaskId = createTask(project, token, new TaskRequest("second", null, TaskStatus.IN_PROGRESS.name(), null));
+        createTask(project, token, new TaskRequest("third", null, TaskStatus.TO_DO.name(), null));
+
+        mockMvc.perform(put(basePath + "/tasks/{taskId}", project.getId(), secondTaskId)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new TaskRequest("second", null, TaskStatus.DONE.name(), testUser.getId())))
+                                .header("Authorization", "Bearer " + token))
+               .andExpect(status().isOk());
+        mockMvc.perform(delete(basePath + "/tasks/{taskId}", project.getId(), firstTaskId)
+                                .header("Authorization", "Bearer " + token))
+               .andExpect(status().isNoContent());
+
+        mockMvc.perform(get(basePath + "/stats", project.getId())
+                                .header("Authorization", "Bearer " + token))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.totalTasks").value(2))
+               .andExpect(jsonPath("$.byStatus.TO_DO").value(1))
+               .andExpect(jsonPath("$.byStatus.IN_PROGRESS").value(0))
+               .andExpect(jsonPath("$.byStatus.DONE").value(1))
+               .andExpect(jsonPath("$.unassignedTasks").value(1))
+               .andExpect(jsonPath("$.byAssignee[0].assignee.id").value(testUser.getId()))
+               .andExpect(jsonPath("$.byAssignee[0].assignee.name").value(testUser.getName()))
+               .andExpect(jsonPath("$.byAssignee[0].taskCount").value(1));
+    }
+
+    @Test
+    void getProjectStats_should_return200OkAndAggregatedCounts_whenProjectHasNoCounters() throws Exception {
+        Task task = setupTaskInProject();
+        String token = loginAndGetToken();
+
+        mockMvc.perform(get(basePath + "/stats", task.getProject().getId())
+                                .header("Authorization", "Bearer " + token))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.totalTasks").value(1))
+               .andExpect(jsonPath("$.byStatus.IN_PROGRESS").value(1))
+               .andExpect(jsonPath("$.unassignedTasks").value(1));
+    }
+
+    @Test
+    void getProjectStats_should_throw403AccessDeniedException_whenUserIsAuthenticatedAndNotAMember() throws Exception {
+        Task task = setupTaskInOtherProject();
+        String token = loginAndGetToken();
+
+        mockMvc.perform(get(basePath + "/stats", task.getProject().getId())
+                                .header("Authorization", "Bearer " + token))
+               .andExpect(status().isForbidden());
+    }
+
+    private Long createTask(Project project, String token, TaskRequest taskRequest) throws Exception {
+        String result = mockMvc.perform(post(basePath + "/tasks", project.getId())
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .content(objectMapper.writeValueAsString(taskRequest))
+                                                .header("Authorization", "Bearer " + token))
+                               .andExpect(status().isCreated())
+                               .andReturn().getResponse().getContentAsString();
+
+        return JsonPath.parse(result).read("$.id", Long.class);
+    }
+
     private Project setupProjectWithMember() {
         Set<User> members = new HashSet<>();
         members.add(testUser);
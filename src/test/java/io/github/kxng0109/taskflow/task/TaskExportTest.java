@@ -0,0 +1,141 @@
+package io.github.kxng0109.taskflow.task;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.kxng0109.taskflow.project.Project;
+import io.github.kxng0109.taskflow.project.ProjectRepository;
+import io.github.kxng0109.taskflow.task.dto.TaskResponse;
+import io.github.kxng0109.taskflow.user.TestUsers;
+import io.github.kxng0109.taskflow.user.User;
+import io.github.kxng0109.taskflow.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//Not @Transactional: the stream is written on another thread in its own transaction, which only sees committed rows
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class TaskExportTest {
+    private final String basePath = "/api/projects/{projectId}/tasks";
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private TestUsers testUsers;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProjectRepository projectRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User member;
+    private final List<Long> createdProjectIds = new ArrayList<>();
+    private final List<Long> createdUserIds = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        member = saveUser("exportMember@email.com");
+    }
+
+    @AfterEach
+    void cleanup() {
+        createdProjectIds.forEach(projectId -> {
+            jdbcTemplate.update("delete from tasks where project_id = ?", projectId);
+            jdbcTemplate.update("delete from projects_members where projects_id = ?", projectId);
+            jdbcTemplate.update("delete from projects where id = ?", projectId);
+        });
+        //Logging in stored a refresh token for each user
+        createdUserIds.forEach(userId -> {
+            jdbcTemplate.update("delete from refresh_tokens where user_id = ?", userId);
+            userRepository.deleteById(userId);
+        });
+    }
+
+    @Test
+    void streamTasksForProject_should_writeOneJsonLinePerTaskInIdOrder_whenAcceptIsNdjson() throws Exception {
+        Project project = saveProjectWithTasks("exported", member, 120);
+
+        MvcResult pending = mockMvc.perform(get(basePath, project.getId())
+                                                    .header("Authorization", "Bearer " + testUsers.loginAndGetToken(member.getEmail()))
+                                                    .accept(MediaType.APPLICATION_NDJSON))
+                                   .andExpect(request().asyncStarted())
+                                   .andReturn();
+        String body = mockMvc.perform(asyncDispatch(pending))
+                             .andExpect(status().isOk())
+                             .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                             .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(120, lines.length);
+        TaskResponse first = objectMapper.readValue(lines[0], TaskResponse.class);
+        TaskResponse last = objectMapper.readValue(lines[119], TaskResponse.class);
+        assertEquals("exported0", first.title());
+        assertEquals(member.getName(), first.assignee().name());
+        assertEquals("exported119", last.title());
+        assertEquals(project.getId(), last.projectId());
+    }
+
+    @Test
+    void streamTasksForProject_should_throw403AccessDeniedException_whenUserIsNotAMember() throws Exception {
+        User other = saveUser("exportOther@email.com");
+        Project project = saveProjectWithTasks("hidden", other, 1);
+
+        mockMvc.perform(get(basePath, project.getId())
+                                .header("Authorization", "Bearer " + testUsers.loginAndGetToken(member.getEmail()))
+                                .accept(MediaType.APPLICATION_NDJSON))
+               .andExpect(request().asyncNotStarted())
+               .andExpect(status().isForbidden())
+               .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+               .andExpect(jsonPath("$.message").value("You are not a member of this task's project"));
+    }
+
+    @Test
+    void streamTasksForProject_should_throw404NotFound_withJsonBody_whenProjectDoesNotExist() throws Exception {
+        mockMvc.perform(get(basePath, 999999L)
+                                .header("Authorization", "Bearer " + testUsers.loginAndGetToken(member.getEmail()))
+                                .accept(MediaType.APPLICATION_NDJSON))
+               .andExpect(request().asyncNotStarted())
+               .andExpect(status().isNotFound())
+               .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+               .andExpect(jsonPath("$.message").value("Project with id 999999 not found"));
+    }
+
+    private Project saveProjectWithTasks(String name, User owner, int tasks) {
+        Project project = Project.builder().name(name).members(new HashSet<>(Set.of(owner))).build();
+        for (int i = 0; i < tasks; i++) {
+            project.addTask(Task.builder().title(name + i).status(TaskStatus.TO_DO).assignee(i % 2 == 0 ? owner : null).build());
+        }
+        Project saved = projectRepository.save(project);
+        createdProjectIds.add(saved.getId());
+        return saved;
+    }
+
+    private User saveUser(String email) {
+        User user = testUsers.save(email);
+        createdUserIds.add(user.getId());
+        return user;
+    }
+}
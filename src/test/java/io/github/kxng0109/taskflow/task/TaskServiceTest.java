@@ -1,19 +1,27 @@
 package io.github.kxng0109.taskflow.task;
 
+import io.github.kxng0109.taskflow.common.KeysetCursor;
+import io.github.kxng0109.taskflow.common.dto.CursorPage;
+import io.github.kxng0109.taskflow.exception.PreconditionFailedException;
 import io.github.kxng0109.taskflow.project.Project;
+import io.github.kxng0109.taskflow.project.ProjectMembershipAuthorizer;
+import io.github.kxng0109.taskflow.project.ProjectMembershipIndex;
 import io.github.kxng0109.taskflow.project.ProjectRepository;
+import io.github.kxng0109.taskflow.security.AuthenticatedUser;
 import io.github.kxng0109.taskflow.task.dto.TaskRequest;
 import io.github.kxng0109.taskflow.user.User;
 import io.github.kxng0109.taskflow.user.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.AccessDeniedException;
 
+import java.time.Duration;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
@@ -21,11 +29,11 @@ import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class TaskServiceTest {
-    @InjectMocks
     private TaskService taskService;
 
     @Mock
@@ -37,8 +45,13 @@ public class TaskServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private TaskStatsService taskStatsService;
+
     private User testUserAMember;
     private User testUserNotAMember;
+    private AuthenticatedUser currentUserAMember;
+    private AuthenticatedUser currentUserNotAMember;
     private Project existingProject;
     private Task existingTask;
     private Task otherTask;
@@ -48,6 +61,17 @@ public class TaskServiceTest {
 
     @BeforeEach
     public void setup() {
+        taskService = new TaskService(
+                taskRepository,
+                projectRepository,
+                userRepository,
+                new ProjectMembershipAuthorizer(
+                        projectRepository,
+                        new ProjectMembershipIndex(projectRepository, new SimpleMeterRegistry(), 0, Duration.ofMinutes(10))
+                ),
+                taskStatsService
+        );
+
         testUserAMember = User.builder()
                 .id(1L)
                 .name("testUserAMember")
@@ -63,6 +87,9 @@ public class TaskServiceTest {
                 .email("test2@email.com")
                 .build();
 
+        currentUserAMember = AuthenticatedUser.from(testUserAMember);
+        currentUserNotAMember = AuthenticatedUser.from(testUserNotAMember);
+
         existingProject = Project.builder()
                 .id(100L)
                 .name("projectName")
@@ -95,14 +122,16 @@ public class TaskServiceTest {
     public void createTaskInProject_should_returnATask_whenUserIsAMember() {
         TaskRequest taskRequest = new TaskRequest("task 1", null,"TO_DO", testUserAMember.getId());
 
-        when(projectRepository.findById(existingProject.getId()))
-                .thenReturn(Optional.of(existingProject));
+        when(projectRepository.existsByIdAndMembersId(existingProject.getId(), testUserAMember.getId()))
+                .thenReturn(true);
+        when(projectRepository.getReferenceById(existingProject.getId()))
+                .thenReturn(existingProject);
         when(userRepository.findById(testUserAMember.getId()))
                 .thenReturn(Optional.of(testUserAMember));
         when(taskRepository.save(any(Task.class)))
                 .thenAnswer(i -> i.getArgument(0));
 
-        Task result = taskService.createTaskInProject(existingProject.getId(), taskRequest, testUserAMember);
+        Task result = taskService.createTaskInProject(existingProject.getId(), taskRequest, currentUserAMember);
 
         assertNotNull(result);
         assertEquals(taskRequest.assigneeId(), result.getAssignee().getId());
@@ -110,28 +139,31 @@ public class TaskServiceTest {
         assertEquals(TaskStatus.TO_DO, result.getStatus());
         assertEquals(existingProject, result.getProject());
 
-        verify(projectRepository).findById(existingProject.getId());
+        verify(projectRepository).getReferenceById(existingProject.getId());
         verify(userRepository).findById(testUserAMember.getId());
         verify(taskRepository).save(any(Task.class));
+        verify(taskStatsService).recordCreated(result);
     }
 
     @Test
     public void createTaskInProject_should_throwAccessDeniedException_whenUserIsNotAMember() {
         TaskRequest taskRequest = new TaskRequest("task 1", null,"TO_DO", testUserNotAMember.getId());
 
-        when(projectRepository.findById(existingProject.getId()))
-                .thenReturn(Optional.of(existingProject));
+        when(projectRepository.existsByIdAndMembersId(existingProject.getId(), testUserAMember.getId()))
+                .thenReturn(true);
+        when(projectRepository.existsByIdAndMembersId(existingProject.getId(), testUserNotAMember.getId()))
+                .thenReturn(false);
         when(userRepository.findById(testUserNotAMember.getId()))
                 .thenReturn(Optional.of(testUserNotAMember));
 
         AccessDeniedException thrownError = assertThrows(
                 AccessDeniedException.class,
-                () -> taskService.createTaskInProject(existingProject.getId(), taskRequest, testUserAMember)
+                () -> taskService.createTaskInProject(existingProject.getId(), taskRequest, currentUserAMember)
         );
 
         assertEquals("Cannot assign task to a user who is not a member of this project", thrownError.getMessage());
 
-        verify(projectRepository).findById(existingProject.getId());
+        verify(projectRepository).existsByIdAndMembersId(existingProject.getId(), testUserNotAMember.getId());
         verify(userRepository).findById(testUserNotAMember.getId());
     }
 
@@ -139,112 +171,141 @@ public class TaskServiceTest {
     public void createTaskInProject_should_throwEntityNotFoundException_whenUserIsNotFound(){
         TaskRequest taskRequest = new TaskRequest("task 1", null,"TO_DO", 12345L);
 
-        when(projectRepository.findById(existingProject.getId()))
-                .thenReturn(Optional.of(existingProject));
+        when(projectRepository.existsByIdAndMembersId(existingProject.getId(), testUserAMember.getId()))
+                .thenReturn(true);
         when(userRepository.findById(taskRequest.assigneeId()))
                 .thenReturn(Optional.empty());
 
         EntityNotFoundException thrownException = assertThrows(
                 EntityNotFoundException.class,
-                () -> taskService.createTaskInProject(existingProject.getId(), taskRequest, testUserAMember)
+                () -> taskService.createTaskInProject(existingProject.getId(), taskRequest, currentUserAMember)
         );
 
         assertEquals("User with id " + taskRequest.assigneeId() + " not found", thrownException.getMessage());
 
-        verify(projectRepository).findById(existingProject.getId());
         verify(userRepository).findById(taskRequest.assigneeId());
     }
 
 
     @Test
     public void getTasksForProject_should_returnTask_whenUserIsAMember() {
-        when(projectRepository.findById(existingProject.getId()))
-                .thenReturn(Optional.of(existingProject));
+        when(projectRepository.existsByIdAndMembersId(existingProject.getId(), testUserAMember.getId()))
+                .thenReturn(true);
+        when(taskRepository.findPageByProjectId(existingProject.getId(), 0L, Limit.of(51)))
+                .thenReturn(List.of(rowOf(existingTask)));
 
-        List<Task> result = taskService.getTasksForProject(existingProject.getId(), testUserAMember);
+        CursorPage<TaskRow> result = taskService.getTasksForProject(
+                existingProject.getId(), null, null, 50, null, currentUserAMember
+        );
 
         assertNotNull(result);
-        assertTrue(result.contains(existingTask));
-        assertEquals(testUserAMember, result.getFirst().getAssignee());
-        assertEquals(existingProject, result.getFirst().getProject());
+        assertEquals(List.of(rowOf(existingTask)), result.items());
+        assertNull(result.nextCursor());
+        assertEquals(testUserAMember.getName(), result.items().getFirst().assigneeName());
+        assertEquals(existingProject.getId(), result.items().getFirst().projectId());
 
-        verify(projectRepository).findById(existingProject.getId());
+        verify(taskRepository).findPageByProjectId(existingProject.getId(), 0L, Limit.of(51));
+    }
+
+    @Test
+    public void getTasksForProject_should_useTheStatusQueryAndReturnACursor_whenMoreTasksThanTheLimitMatch() {
+        TaskRow nextTask = new TaskRow(existingTask.getId() + 1, "next", null, TaskStatus.IN_PROGRESS, existingProject.getId(), null, null, 0L);
+        when(projectRepository.existsByIdAndMembersId(existingProject.getId(), testUserAMember.getId()))
+                .thenReturn(true);
+        when(taskRepository.findPageByProjectIdAndStatus(existingProject.getId(), TaskStatus.IN_PROGRESS, 0L, Limit.of(2)))
+                .thenReturn(List.of(rowOf(existingTask), nextTask));
+
+        CursorPage<TaskRow> result = taskService.getTasksForProject(
+                existingProject.getId(), TaskStatus.IN_PROGRESS, null, 1, null, currentUserAMember
+        );
+
+        assertEquals(List.of(rowOf(existingTask)), result.items());
+        assertEquals(KeysetCursor.of(existingTask.getId()).encode(), result.nextCursor());
+        verify(taskRepository, never()).findPageByProjectId(any(), anyLong(), any());
     }
 
     @Test
     public void getTasksForProject_should_throwAccessDeniedException_whenUserIsNotAMember() {
-        when(projectRepository.findById(existingProject.getId()))
-                .thenReturn(Optional.ofNullable(existingProject));
+        when(projectRepository.existsByIdAndMembersId(existingProject.getId(), testUserNotAMember.getId()))
+                .thenReturn(false);
+        when(projectRepository.existsById(existingProject.getId()))
+                .thenReturn(true);
 
         AccessDeniedException thrownException = assertThrows(
                 AccessDeniedException.class,
-                () -> taskService.getTasksForProject(existingProject.getId(), testUserNotAMember)
+                () -> taskService.getTasksForProject(
+                        existingProject.getId(), null, null, 50, null, currentUserNotAMember
+                )
         );
 
         assertEquals("You are not a member of this task's project", thrownException.getMessage());
 
-        verify(projectRepository).findById(existingProject.getId());
+        verify(taskRepository, never()).findPageByProjectId(any(), anyLong(), any());
     }
 
 
     @Test
     public void getTaskById_should_returnTask_whenUserIsAMember() {
-        when(taskRepository.findById(existingTask.getId()))
-                .thenReturn(Optional.of(existingTask));
+        when(taskRepository.findRowById(existingTask.getId()))
+                .thenReturn(Optional.of(rowOf(existingTask)));
+        when(projectRepository.existsByIdAndMembersId(existingProject.getId(), testUserAMember.getId()))
+                .thenReturn(true);
 
-        Task result = taskService.getTaskById(existingProject.getId(), existingTask.getId(), testUserAMember);
+        TaskRow result = taskService.getTaskById(existingProject.getId(), existingTask.getId(), currentUserAMember);
 
         assertNotNull(result);
-        assertEquals(existingTask, result);
-        assertEquals(testUserAMember, result.getAssignee());
-        assertEquals(existingProject, result.getProject());
+        assertEquals(rowOf(existingTask), result);
+        assertEquals(testUserAMember.getId(), result.assigneeId());
+        assertEquals(existingProject.getId(), result.projectId());
 
-        verify(taskRepository).findById(existingTask.getId());
+        verify(taskRepository).findRowById(existingTask.getId());
     }
 
     @Test
     public void getTaskById_should_throwEntityNotFoundException_whenTaskIsNotFound() {
-        when(taskRepository.findById(fakeTaskId))
+        when(taskRepository.findRowById(fakeTaskId))
                 .thenReturn(Optional.empty());
 
         EntityNotFoundException thrownException = assertThrows(
                 EntityNotFoundException.class,
-                () -> taskService.getTaskById(existingProject.getId(), fakeTaskId, testUserAMember)
+                () -> taskService.getTaskById(existingProject.getId(), fakeTaskId, currentUserAMember)
         );
 
         assertEquals("Task with id " + fakeTaskId + " not found", thrownException.getMessage());
 
-        verify(taskRepository).findById(fakeTaskId);
+        verify(taskRepository).findRowById(fakeTaskId);
     }
 
     @Test
     public void getTaskById_should_thrownAccessDeniedException_whenTaskDoesNotBelongToProject() {
-        when(taskRepository.findById(otherTask.getId()))
-                .thenReturn(Optional.of(otherTask));
+        when(taskRepository.findRowById(otherTask.getId()))
+                .thenReturn(Optional.of(rowOf(otherTask)));
 
         AccessDeniedException thrownException = assertThrows(
                 AccessDeniedException.class,
-                () -> taskService.getTaskById(existingProject.getId(), otherTask.getId(), testUserAMember)
+                () -> taskService.getTaskById(existingProject.getId(), otherTask.getId(), currentUserAMember)
         );
 
         assertEquals("This task does not belong to this project", thrownException.getMessage());
 
-        verify(taskRepository).findById(otherTask.getId());
+        verify(taskRepository).findRowById(otherTask.getId());
     }
 
     @Test
     public void getTaskById_should_throwAccessDeniedException_whenUserIsNotAMember() {
-        when(taskRepository.findById(existingTask.getId()))
-                .thenReturn(Optional.ofNullable(existingTask));
+        when(taskRepository.findRowById(existingTask.getId()))
+                .thenReturn(Optional.of(rowOf(existingTask)));
+        when(projectRepository.existsByIdAndMembersId(existingProject.getId(), testUserNotAMember.getId()))
+                .thenReturn(false);
 
         AccessDeniedException thrownException = assertThrows(
                 AccessDeniedException.class,
-                () -> taskService.getTaskById(existingProject.getId(), existingTask.getId(), testUserNotAMember)
+                () -> taskService.getTaskById(existingProject.getId(), existingTask.getId(), currentUserNotAMember)
         );
 
         assertEquals("You are not a member of this task's project", thrownException.getMessage());
 
-        verify(taskRepository).findById(existingTask.getId());
+        verify(taskRepository).findRowById(existingTask.getId());
     }
 
 
@@ -258,6 +319,8 @@ public class TaskServiceTest {
 
         when(taskRepository.findById(existingTask.getId()))
                 .thenReturn(Optional.of(existingTask));
+        when(projectRepository.existsByIdAndMembersId(existingProject.getId(), testUserAMember.getId()))
+                .thenReturn(true);
         when(taskRepository.save(any(Task.class)))
                 .thenAnswer(i -> i.getArgument(0));
 
@@ -265,7 +328,8 @@ public class TaskServiceTest {
                 existingProject.getId(),
                 existingTask.getId(),
                 taskRequest,
-                testUserAMember
+                null,
+                currentUserAMember
         );
 
         assertNotNull(result);
@@ -278,6 +342,7 @@ public class TaskServiceTest {
 
         verify(taskRepository).findById(existingTask.getId());
         verify(taskRepository).save(any(Task.class));
+        verify(taskStatsService).recordMoved(result, TaskStatus.IN_PROGRESS, testUserAMember.getId());
     }
 
     @Test
@@ -298,7 +363,8 @@ public class TaskServiceTest {
                         existingProject.getId(),
                         fakeTaskId,
                         taskRequest,
-                        testUserAMember
+                        null,
+                        currentUserAMember
                 )
         );
 
@@ -324,7 +390,8 @@ public class TaskServiceTest {
                         existingProject.getId(),
                         otherTask.getId(),
                         taskRequest,
-                        testUserAMember
+                        null,
+                        currentUserAMember
                 )
         );
 
@@ -344,6 +411,8 @@ public class TaskServiceTest {
 
         when(taskRepository.findById(existingTask.getId()))
                 .thenReturn(Optional.of(existingTask));
+        when(projectRepository.existsByIdAndMembersId(existingProject.getId(), testUserNotAMember.getId()))
+                .thenReturn(false);
 
         AccessDeniedException thrownException = assertThrows(
                 AccessDeniedException.class,
@@ -351,7 +420,8 @@ public class TaskServiceTest {
                         existingProject.getId(),
                         existingTask.getId(),
                         taskRequest,
-                        testUserNotAMember
+                        null,
+                        currentUserNotAMember
                 )
         );
 
@@ -371,6 +441,8 @@ public class TaskServiceTest {
 
         when(taskRepository.findById(existingTask.getId()))
                 .thenReturn(Optional.of(existingTask));
+        when(projectRepository.existsByIdAndMembersId(existingProject.getId(), testUserAMember.getId()))
+                .thenReturn(true);
         when(userRepository.findById(fakeUserId))
                 .thenReturn(Optional.empty());
 
@@ -380,7 +452,8 @@ public class TaskServiceTest {
                         existingProject.getId(),
                         existingTask.getId(),
                         taskRequest,
-                        testUserAMember
+                        null,
+                        currentUserAMember
                 )
         );
 
@@ -401,6 +474,10 @@ public class TaskServiceTest {
 
         when(taskRepository.findById(existingTask.getId()))
                 .thenReturn(Optional.of(existingTask));
+        when(projectRepository.existsByIdAndMembersId(existingProject.getId(), testUserAMember.getId()))
+                .thenReturn(true);
+        when(projectRepository.existsByIdAndMembersId(existingProject.getId(), testUserNotAMember.getId()))
+                .thenReturn(false);
         when(userRepository.findById(testUserNotAMember.getId()))
                 .thenReturn(Optional.of(testUserNotAMember));
 
@@ -410,7 +487,8 @@ public class TaskServiceTest {
                         existingProject.getId(),
                         existingTask.getId(),
                         taskRequest,
-                        testUserAMember
+                        null,
+                        currentUserAMember
                 )
         );
 
@@ -420,16 +498,43 @@ public class TaskServiceTest {
         verify(userRepository).findById(testUserNotAMember.getId());
     }
 
+    @Test
+    public void updateTaskInProject_should_throwPreconditionFailedException_whenExpectedVersionIsStale() {
+        TaskRequest taskRequest = new TaskRequest("newTitle", "newDescription", "DONE", null);
+        when(taskRepository.findStateById(existingTask.getId()))
+                .thenReturn(Optional.of(new TaskStateRow(existingProject.getId(), TaskStatus.TO_DO, null, 4L)));
+        when(projectRepository.existsByIdAndMembersId(existingProject.getId(), testUserAMember.getId()))
+                .thenReturn(true);
+
+        assertThrows(
+                PreconditionFailedException.class,
+                () -> taskService.updateTaskInProject(
+                        existingProject.getId(),
+                        existingTask.getId(),
+                        taskRequest,
+                        3L,
+                        currentUserAMember
+                )
+        );
+
+        verify(taskRepository, never()).findById(any());
+        verify(taskRepository, never()).updateIfVersion(any(), any(), any(), any(), any(), any());
+        verifyNoInteractions(taskStatsService);
+    }
+
 
     @Test
     public void deleteTaskInProject_should_deleteTask_whenUserIsAMember() {
         when(taskRepository.findById(existingTask.getId()))
                 .thenReturn(Optional.of(existingTask));
+        when(projectRepository.existsByIdAndMembersId(existingProject.getId(), testUserAMember.getId()))
+                .thenReturn(true);
 
-        taskService.deleteTaskInProject(existingProject.getId(), existingTask.getId(), testUserAMember);
+        taskService.deleteTaskInProject(existingProject.getId(), existingTask.getId(), null, currentUserAMember);
 
         verify(taskRepository).findById(existingTask.getId());
         verify(taskRepository).delete(existingTask);
+        verify(taskStatsService).recordDeleted(existingTask);
     }
 
     @Test
@@ -439,7 +544,7 @@ public class TaskServiceTest {
 
         EntityNotFoundException thrownException = assertThrows(
                 EntityNotFoundException.class,
-                () -> taskService.deleteTaskInProject(existingProject.getId(), fakeTaskId, testUserAMember)
+                () -> taskService.deleteTaskInProject(existingProject.getId(), fakeTaskId, null, currentUserAMember)
         );
 
         assertEquals("Task with id " + fakeTaskId + " not found", thrownException.getMessage());
@@ -453,7 +558,7 @@ public class TaskServiceTest {
 
         AccessDeniedException thrownException = assertThrows(
                 AccessDeniedException.class,
-                () -> taskService.deleteTaskInProject(existingProject.getId(), otherTask.getId(), testUserAMember)
+                () -> taskService.deleteTaskInProject(existingProject.getId(), otherTask.getId(), null, currentUserAMember)
         );
 
         assertEquals("This task does not belong to this project", thrownException.getMessage());
@@ -465,14 +570,31 @@ public class TaskServiceTest {
     public void deleteTaskInProject_should_throwAccessDeniedException_whenUserIsNotAMember() {
         when(taskRepository.findById(existingTask.getId()))
                 .thenReturn(Optional.of(existingTask));
+        when(projectRepository.existsByIdAndMembersId(existingProject.getId(), testUserNotAMember.getId()))
+                .thenReturn(false);
 
         AccessDeniedException thrownException = assertThrows(
                 AccessDeniedException.class,
-                () -> taskService.deleteTaskInProject(existingProject.getId(), existingTask.getId(), testUserNotAMember)
+                () -> taskService.deleteTaskInProject(existingProject.getId(), existingTask.getId(), null, currentUserNotAMember)
         );
 
         assertEquals("You are not a member of this task's project", thrownException.getMessage());
 
         verify(taskRepository).findById(existingTask.getId());
     }
+
+    private TaskRow rowOf(Task task) {
+        Long assigneeId = task.getAssignee() != null ? task.getAssignee().getId() : null;
+        String assigneeName = task.getAssignee() != null ? task.getAssignee().getName() : null;
+        return new TaskRow(
+                task.getId(),
+                task.getTitle(),
+                task.getDescription(),
+                task.getStatus(),
+                task.getProject().getId(),
+                assigneeId,
+                assigneeName,
+                task.getVersion()
+        );
+    }
 }
@@ -0,0 +1,82 @@
+package io.github.kxng0109.taskflow.task;
+
+import io.github.kxng0109.taskflow.project.Project;
+import io.github.kxng0109.taskflow.project.ProjectRepository;
+import io.github.kxng0109.taskflow.user.User;
+import io.github.kxng0109.taskflow.user.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+@ActiveProfiles("test")
+public class TaskStatsServiceTest {
+    @Autowired
+    private TaskStatsService taskStatsService;
+    @Autowired
+    private TaskCounterRepository taskCounterRepository;
+    @Autowired
+    private ProjectRepository projectRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManager entityManager;
+    private User assignee;
+    private Project project;
+
+    @BeforeEach
+    void setup() {
+        assignee = userRepository.save(User.builder()
+                                           .name("assignee")
+                                           .email("assignee@email.com")
+                                           .password("encodedPassword")
+                                           .build());
+        project = projectRepository.save(Project.builder()
+                                                .name("statsProject")
+                                                .members(Set.of(assignee))
+                                                .build());
+        project.addTask(Task.builder().title("first").status(TaskStatus.TO_DO).assignee(assignee).build());
+        project.addTask(Task.builder().title("second").status(TaskStatus.TO_DO).assignee(assignee).build());
+        project.addTask(Task.builder().title("third").status(TaskStatus.DONE).build());
+        entityManager.flush();
+    }
+
+    @Test
+    void repairCounters_should_buildCounters_whenProjectHasNone() {
+        assertTrue(taskCounterRepository.findCountsByProjectId(project.getId()).isEmpty());
+
+        taskStatsService.repairCounters();
+
+        assertEquals(
+                Set.of(
+                        new TaskCountRow(TaskStatus.TO_DO, assignee.getId(), 2L),
+                        new TaskCountRow(TaskStatus.DONE, null, 1L)
+                ),
+                Set.copyOf(taskCounterRepository.findCountsByProjectId(project.getId()))
+        );
+    }
+
+    @Test
+    void repairCounters_should_recountProject_whenCountersHaveDrifted() {
+        taskStatsService.repairCounters();
+        taskCounterRepository.addToCount(project.getId(), TaskStatus.TO_DO, assignee.getId(), 5);
+        taskCounterRepository.insertCounter(project.getId(), TaskStatus.IN_PROGRESS.name(), 0L, 3);
+
+        taskStatsService.repairCounters();
+
+        List<TaskCountRow> counts = taskCounterRepository.findCountsByProjectId(project.getId());
+        assertEquals(2, counts.size());
+        assertTrue(counts.contains(new TaskCountRow(TaskStatus.TO_DO, assignee.getId(), 2L)));
+    }
+}
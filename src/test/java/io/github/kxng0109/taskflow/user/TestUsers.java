@@ -0,0 +1,60 @@
+package io.github.kxng0109.taskflow.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import io.github.kxng0109.taskflow.security.dto.LoginRequest;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//Saves test users and logs them in through the real endpoint. MockMvc is looked up lazily since only contexts with
+//@AutoConfigureMockMvc have one.
+@Component
+public class TestUsers {
+    public static final String PASSWORD = "testPassword";
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<MockMvc> mockMvc;
+
+    public TestUsers(
+            UserRepository userRepository,
+            PasswordEncoder passwordEncoder,
+            ObjectMapper objectMapper,
+            ObjectProvider<MockMvc> mockMvc
+    ) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.objectMapper = objectMapper;
+        this.mockMvc = mockMvc;
+    }
+
+    public User save(String email) {
+        return save(email, Role.USER);
+    }
+
+    public User save(String email, Role role) {
+        return userRepository.save(User.builder()
+                                           .name(email)
+                                           .email(email)
+                                           .password(passwordEncoder.encode(PASSWORD))
+                                           .role(role)
+                                           .build());
+    }
+
+    public String loginAndGetToken(String email) throws Exception {
+        String result = mockMvc.getObject().perform(post("/api/auth/login")
+                                                            .contentType(MediaType.APPLICATION_JSON)
+                                                            .content(objectMapper.writeValueAsString(new LoginRequest(email, PASSWORD))))
+                               .andExpect(status().isOk())
+                               .andReturn().getResponse().getContentAsString();
+
+        return JsonPath.parse(result).read("$.accessToken");
+    }
+}
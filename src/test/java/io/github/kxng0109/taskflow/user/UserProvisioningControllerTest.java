@@ -0,0 +1,95 @@
+package io.github.kxng0109.taskflow.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.kxng0109.taskflow.security.dto.RegistrationRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@ActiveProfiles("test")
+public class UserProvisioningControllerTest {
+    private final String basePath = "/api/admin/users/bulk";
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TestUsers testUsers;
+
+    @Test
+    void provisionUsers_should_reportEachRow_whenBatchMixesNewDuplicateAndInvalidUsers() throws Exception {
+        testUsers.save("admin@email.com", Role.ADMIN);
+        testUsers.save("existing@email.com", Role.USER);
+        List<RegistrationRequest> registrationRequests = List.of(
+                new RegistrationRequest("first", "first@email.com", "testPassword"),
+                new RegistrationRequest("existing", "existing@email.com", "testPassword"),
+                new RegistrationRequest("short", "short@email.com", "short"),
+                new RegistrationRequest("firstAgain", "first@email.com", "testPassword"),
+                new RegistrationRequest("second", "second@email.com", "testPassword")
+        );
+
+        mockMvc.perform(post(basePath)
+                                .header("Authorization", "Bearer " + testUsers.loginAndGetToken("admin@email.com"))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(registrationRequests)))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.created").value(2))
+               .andExpect(jsonPath("$.duplicates").value(2))
+               .andExpect(jsonPath("$.invalid").value(1))
+               .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+               .andExpect(jsonPath("$.results[1].status").value("DUPLICATE"))
+               .andExpect(jsonPath("$.results[2].status").value("INVALID"))
+               .andExpect(jsonPath("$.results[3].status").value("DUPLICATE"))
+               .andExpect(jsonPath("$.results[4].status").value("CREATED"));
+
+        User created = userRepository.findByEmail("second@email.com").orElseThrow();
+        assertTrue(passwordEncoder.matches("testPassword", created.getPassword()));
+    }
+
+    @Test
+    void provisionUsers_should_acceptNewlineDelimitedJson() throws Exception {
+        testUsers.save("admin@email.com", Role.ADMIN);
+        String body = objectMapper.writeValueAsString(new RegistrationRequest("first", "ndFirst@email.com", "testPassword"))
+                + "\n"
+                + objectMapper.writeValueAsString(new RegistrationRequest("second", "ndSecond@email.com", "testPassword"))
+                + "\n";
+
+        mockMvc.perform(post(basePath)
+                                .header("Authorization", "Bearer " + testUsers.loginAndGetToken("admin@email.com"))
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .content(body))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.created").value(2));
+    }
+
+    @Test
+    void provisionUsers_should_return403Forbidden_whenUserIsNotAnAdmin() throws Exception {
+        testUsers.save("user@email.com", Role.USER);
+
+        mockMvc.perform(post(basePath)
+                                .header("Authorization", "Bearer " + testUsers.loginAndGetToken("user@email.com"))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[]"))
+               .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.kxng0109.taskflow.user;
+
+import io.github.kxng0109.taskflow.common.SecondLevelCacheEvictor;
+import io.github.kxng0109.taskflow.security.dto.RegistrationRequest;
+import io.github.kxng0109.taskflow.security.password.BoundedPasswordEncoder;
+import io.github.kxng0109.taskflow.user.dto.ProvisioningReport;
+import io.github.kxng0109.taskflow.user.dto.ProvisioningStatus;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserProvisioningServiceTest {
+    private UserProvisioningService userProvisioningService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @Mock
+    private SecondLevelCacheEvictor cacheEvictor;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    public void setup() {
+        userProvisioningService = new UserProvisioningService(
+                userRepository,
+                passwordEncoder,
+                cacheEvictor,
+                jdbcTemplate,
+                transactionManager,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                500
+        );
+    }
+
+    @Test
+    void provisionUsers_should_reportOnlyUniqueConflictsAsDuplicates_whenTheBatchInsertFails() {
+        List<RegistrationRequest> registrationRequests = List.of(
+                new RegistrationRequest("taken", "taken@email.com", "testPassword"),
+                new RegistrationRequest("rejected", "rejected@email.com", "testPassword"),
+                new RegistrationRequest("created", "created@email.com", "testPassword")
+        );
+        when(userRepository.findExistingEmails(anyList())).thenReturn(List.of());
+        when(passwordEncoder.encodeAll(anyList())).thenReturn(List.of("hash1", "hash2", "hash3"));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataIntegrityViolationException("batch failed"));
+        when(jdbcTemplate.update(anyString(), any(Object[].class)))
+                .thenThrow(new DuplicateKeyException("unique key"))
+                .thenThrow(new DataIntegrityViolationException("value too long"))
+                .thenReturn(1);
+
+        ProvisioningReport report = userProvisioningService.provisionUsers(registrationRequests.iterator());
+
+        assertEquals(1, report.created());
+        assertEquals(1, report.duplicates());
+        assertEquals(1, report.rejected());
+        assertEquals(ProvisioningStatus.DUPLICATE, report.results().get(0).status());
+        assertEquals(ProvisioningStatus.REJECTED, report.results().get(1).status());
+        assertEquals(ProvisioningStatus.CREATED, report.results().get(2).status());
+    }
+
+    @Test
+    void provisionUsers_should_reportRowAsInvalid_whenFieldsAreTooLong() {
+        List<RegistrationRequest> registrationRequests = List.of(
+                new RegistrationRequest("n".repeat(256), "long@email.com", "testPassword")
+        );
+
+        ProvisioningReport report = userProvisioningService.provisionUsers(registrationRequests.iterator());
+
+        assertEquals(1, report.invalid());
+        assertEquals("Name must be at most 255 characters long", report.results().getFirst().message());
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
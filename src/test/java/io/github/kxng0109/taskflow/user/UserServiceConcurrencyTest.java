@@ -0,0 +1,67 @@
+package io.github.kxng0109.taskflow.user;
+
+import io.github.kxng0109.taskflow.security.dto.RegistrationRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Not @Transactional: every registration has to commit on its own for the unique index to arbitrate
+@SpringBootTest
+@ActiveProfiles("test")
+public class UserServiceConcurrencyTest {
+    private static final int PARALLEL_REGISTRATIONS = 8;
+    private final String testEmail = "concurrentEmail@email.com";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    public void tearDown() {
+        userRepository.findByEmail(testEmail).ifPresent(userRepository::delete);
+    }
+
+    @Test
+    void registerUser_should_createExactlyOneUser_whenTheSameEmailIsRegisteredInParallel() throws Exception {
+        RegistrationRequest registrationRequest = new RegistrationRequest("testName", testEmail, "testPassword");
+        ExecutorService executor = Executors.newFixedThreadPool(PARALLEL_REGISTRATIONS);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<User>> registrations = new ArrayList<>();
+        for (int i = 0; i < PARALLEL_REGISTRATIONS; i++) {
+            registrations.add(executor.submit(() -> {
+                start.await();
+                return userService.registerUser(registrationRequest);
+            }));
+        }
+        start.countDown();
+
+        int succeeded = 0;
+        int conflicted = 0;
+        for (Future<User> registration : registrations) {
+            try{
+                registration.get(30, TimeUnit.SECONDS);
+                succeeded++;
+            }catch(ExecutionException e){
+                assertInstanceOf(IllegalStateException.class, e.getCause());
+                assertEquals("User with that email already exists.", e.getCause().getMessage());
+                conflicted++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, succeeded);
+        assertEquals(PARALLEL_REGISTRATIONS - 1, conflicted);
+        assertTrue(userRepository.findByEmail(testEmail).isPresent());
+    }
+}